@@ -0,0 +1,119 @@
+package jpa.jpastudy.loadtest;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jpa.jpastudy.JpastudyApplication;
+import jpa.jpastudy.intern.AddressInterning;
+import jpa.jpastudy.jpql.Address;
+import jpa.jpastudy.read.StreamingFetchSize;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.SessionFactory;
+import org.hibernate.StatelessSession;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 주문 interning-orders 건의 Address 를 모두 읽어 메모리에 들고 있는 export 를 AddressInterning 끄고/켜고 한 번씩 실행해
+ * GC 직후 힙 사용량의 전/후 차이를 비교한다. 주문이 모자라면 먼저 채운다.
+ * 실행: ./gradlew addressInterningBenchmark -Dloadtest.interning-orders=1000000
+ * 별도 JVM 에서 System.gc() 를 여러 번 불러 재므로 단위 테스트로 돌리지 않는다.
+ */
+public class AddressInterningBenchmarkMain {
+
+    private static final int FETCH_SIZE = 1000;
+
+    public static void main(String[] args) {
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(JpastudyApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties("logging.level.org.hibernate.SQL=info")
+                .run(args)) {
+
+            LoadTestSettings settings = Binder.get(context.getEnvironment())
+                    .bind("loadtest", LoadTestSettings.class)
+                    .orElseGet(LoadTestSettings::new);
+            EntityManagerFactory emf = context.getBean(EntityManagerFactory.class);
+            EntityManager em = SharedEntityManagerCreator.createSharedEntityManager(emf);
+            TransactionTemplate transactionTemplate = context.getBean(TransactionTemplate.class);
+            int maxSize = context.getEnvironment().getProperty("jpastudy.interning.max-size", Integer.class, 100_000);
+
+            seed(em, transactionTemplate, settings);
+            SessionFactory sessionFactory = emf.unwrap(SessionFactory.class);
+            int fetchSize = context.getBean(StreamingFetchSize.class).of(FETCH_SIZE);
+
+            // JIT 과 커넥션 풀을 데우는 실행은 버린다.
+            run(sessionFactory, fetchSize, false, maxSize);
+            List<Result> results = List.of(run(sessionFactory, fetchSize, false, maxSize), run(sessionFactory, fetchSize, true, maxSize));
+
+            System.out.println("=== address interning orders=" + settings.getInterningOrders() + ", max-size=" + maxSize);
+            System.out.printf("%-10s %10s %14s %14s %14s %12s %10s%n",
+                    "interning", "rows", "before(KB)", "after(KB)", "retained(KB)", "bytes/row", "pooled");
+            results.forEach(Result::print);
+        }
+    }
+
+    private static void seed(EntityManager em, TransactionTemplate transactionTemplate, LoadTestSettings settings) {
+        Long existing = transactionTemplate.execute(status ->
+                em.createQuery("select count(o) from Order o", Long.class).getSingleResult());
+        int missing = (int) Math.max(0, settings.getInterningOrders() - existing);
+        if (missing == 0) {
+            return;
+        }
+        // 주문과 상품만 필요하므로 팀/회원은 만들지 않는다.
+        settings.setTeams(1);
+        settings.setMembers(0);
+        settings.setOrders(missing);
+        long start = System.nanoTime();
+        new DataGenerator(em, transactionTemplate, settings).generate();
+        System.out.printf("generated %d orders in %d ms%n", missing, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private static Result run(SessionFactory sessionFactory, int fetchSize, boolean interning, int maxSize) {
+        AddressInterning.configure(interning, maxSize);
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        long before = usedAfterGc(memory);
+        List<Address> exported = new ArrayList<>();
+        try (StatelessSession session = sessionFactory.openStatelessSession()) {
+            session.beginTransaction();
+            try (ScrollableResults<Address> cursor = session.createSelectionQuery("select o.address from Order o", Address.class)
+                    .setFetchSize(fetchSize)
+                    .setReadOnly(true)
+                    .scroll(ScrollMode.FORWARD_ONLY)) {
+                while (cursor.next()) {
+                    exported.add(cursor.get());
+                }
+            } finally {
+                session.getTransaction().rollback();
+            }
+        }
+        long after = usedAfterGc(memory);
+        Result result = new Result(interning, exported.size(), before, after, AddressInterning.pooledCount());
+        exported.clear();
+        return result;
+    }
+
+    private static long usedAfterGc(MemoryMXBean memory) {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+
+    private record Result(boolean interning, int rows, long before, long after, int pooled) {
+
+        void print() {
+            long retained = after - before;
+            System.out.printf("%-10s %10d %14d %14d %14d %12.1f %10d%n", interning ? "on" : "off", rows,
+                    before / 1024, after / 1024, retained / 1024, rows == 0 ? 0.0 : (double) retained / rows, pooled);
+        }
+    }
+}
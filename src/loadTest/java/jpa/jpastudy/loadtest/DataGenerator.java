@@ -0,0 +1,108 @@
+package jpa.jpastudy.loadtest;
+
+import jakarta.persistence.EntityManager;
+import jpa.jpastudy.jpql.Address;
+import jpa.jpastudy.jpql.Member;
+import jpa.jpastudy.jpql.MemberType;
+import jpa.jpastudy.jpql.Order;
+import jpa.jpastudy.jpql.Product;
+import jpa.jpastudy.jpql.Team;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.IntConsumer;
+
+/**
+ * 운영과 비슷하게 치우친 데이터를 만든다.
+ * - 팀 크기: 회원마다 Zipf 로 팀을 골라 소수의 팀에 회원이 몰린다.
+ * - 회원 타입: adminRatio 만큼 ADMIN
+ * - 주문: 상품을 Zipf 로 골라 인기 상품에 주문이 몰린다. 도시/우편번호도 소수에 몰린다.
+ * JPA 배치 insert 경로(hibernate.jdbc.batch_size)를 그대로 사용하고 청크마다 flush/clear 한다.
+ */
+class DataGenerator {
+
+    private static final int CHUNK = 1000;
+    private static final String[] CITIES = {"서울", "부산", "인천", "대구", "대전", "광주", "울산", "수원", "창원", "고양",
+            "용인", "성남", "청주", "전주", "천안", "안산", "포항", "제주", "김해", "평택"};
+
+    private final EntityManager em;
+    private final TransactionTemplate transactionTemplate;
+    private final LoadTestSettings settings;
+
+    DataGenerator(EntityManager em, TransactionTemplate transactionTemplate, LoadTestSettings settings) {
+        this.em = em;
+        this.transactionTemplate = transactionTemplate;
+        this.settings = settings;
+    }
+
+    GeneratedData generate() {
+        long[] teamIds = new long[settings.getTeams()];
+        chunked(settings.getTeams(), i -> {
+            Team team = new Team();
+            team.setName("팀" + i);
+            em.persist(team);
+            teamIds[i] = team.getId();
+        });
+
+        Zipf teamPicker = new Zipf(settings.getTeams(), settings.getZipfExponent());
+        long[] memberIds = new long[settings.getMembers()];
+        chunked(settings.getMembers(), i -> {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            Member member = new Member();
+            member.setUsername("member" + i);
+            member.setAge(Math.max(1, (int) (35 + random.nextGaussian() * 15)));
+            member.setType(random.nextDouble() < settings.getAdminRatio() ? MemberType.ADMIN : MemberType.USER);
+            member.setTeam(em.getReference(Team.class, teamIds[teamPicker.next()]));
+            em.persist(member);
+            memberIds[i] = member.getId();
+        });
+
+        long[] productIds = new long[settings.getProducts()];
+        chunked(settings.getProducts(), i -> {
+            Product product = new Product();
+            product.setName("상품" + i);
+            product.setPrice(1000 + ThreadLocalRandom.current().nextInt(100) * 100);
+            product.setStockAmount(Integer.MAX_VALUE / 2);
+            em.persist(product);
+            productIds[i] = product.getId();
+        });
+
+        Zipf productPicker = new Zipf(settings.getProducts(), settings.getZipfExponent());
+        Zipf cityPicker = new Zipf(CITIES.length, settings.getZipfExponent());
+        chunked(settings.getOrders(), i -> {
+            Order order = new Order();
+            order.setAddress(address(cityPicker));
+            order.setProduct(em.getReference(Product.class, productIds[productPicker.next()]));
+            em.persist(order);
+        });
+
+        return new GeneratedData(teamIds, memberIds, productIds, teamPicker, productPicker, cityPicker);
+    }
+
+    static Address address(Zipf cityPicker) {
+        int city = cityPicker.next();
+        Address address = new Address();
+        address.setCity(CITIES[city]);
+        address.setStreet("거리" + ThreadLocalRandom.current().nextInt(10_000));
+        address.setZipcode(String.format("%02d%03d", city, ThreadLocalRandom.current().nextInt(50)));
+        return address;
+    }
+
+    private void chunked(int total, IntConsumer row) {
+        for (int from = 0; from < total; from += CHUNK) {
+            int start = from;
+            int end = Math.min(total, from + CHUNK);
+            transactionTemplate.executeWithoutResult(status -> {
+                for (int i = start; i < end; i++) {
+                    row.accept(i);
+                }
+                em.flush();
+                em.clear();
+            });
+        }
+    }
+
+    record GeneratedData(long[] teamIds, long[] memberIds, long[] productIds,
+                         Zipf teamPicker, Zipf productPicker, Zipf cityPicker) {
+    }
+}
@@ -0,0 +1,54 @@
+package jpa.jpastudy.loadtest;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jpa.jpastudy.JpastudyApplication;
+import jpa.jpastudy.cache.QueryResultCache;
+import jpa.jpastudy.order.OrderPlacementService;
+import jpa.jpastudy.read.MemberReadService;
+import org.hibernate.SessionFactory;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * 애플리케이션 컨텍스트를 웹 서버 없이 띄워 데이터를 만들고 혼합 부하를 건다.
+ * 실행: ./gradlew loadTest -Dloadtest.threads=64 -Dloadtest.duration-seconds=120
+ * 기존 데이터 위에 계속 쌓이므로 빈 DB 에서 실행하는 것이 좋다.
+ */
+public class LoadTestMain {
+
+    public static void main(String[] args) throws InterruptedException {
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(JpastudyApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.jpa.properties.hibernate.generate_statistics=true",
+                        "logging.level.org.hibernate.SQL=info",
+                        "logging.level.org.hibernate.engine.internal.StatisticalLoggingSessionEventListener=warn")
+                .run(args)) {
+
+            LoadTestSettings settings = Binder.get(context.getEnvironment())
+                    .bind("loadtest", LoadTestSettings.class)
+                    .orElseGet(LoadTestSettings::new);
+            EntityManagerFactory emf = context.getBean(EntityManagerFactory.class);
+            EntityManager em = SharedEntityManagerCreator.createSharedEntityManager(emf);
+            TransactionTemplate transactionTemplate = context.getBean(TransactionTemplate.class);
+
+            long start = System.nanoTime();
+            DataGenerator.GeneratedData data = new DataGenerator(em, transactionTemplate, settings).generate();
+            System.out.printf("generated %d teams, %d members, %d products, %d orders in %d ms%n",
+                    settings.getTeams(), settings.getMembers(), settings.getProducts(), settings.getOrders(),
+                    (System.nanoTime() - start) / 1_000_000);
+
+            Workload workload = new Workload(em, transactionTemplate,
+                    context.getBean(MemberReadService.class),
+                    context.getBean(QueryResultCache.class),
+                    context.getBean(OrderPlacementService.class),
+                    data, settings);
+            new LoadTestRunner(workload, settings, emf.unwrap(SessionFactory.class).getStatistics()).run();
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package jpa.jpastudy.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.hibernate.stat.Statistics;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * threads 개의 스레드가 duration 동안 Workload 를 반복 실행하며 작업별 지연시간을 HdrHistogram 에 기록한다.
+ * warmup 동안의 기록과 Hibernate 통계는 버린다.
+ */
+class LoadTestRunner {
+
+    private final Workload workload;
+    private final LoadTestSettings settings;
+    private final Statistics statistics;
+
+    private final Map<Operation, Histogram> histograms = new EnumMap<>(Operation.class);
+    private final Map<Operation, LongAdder> errors = new EnumMap<>(Operation.class);
+
+    LoadTestRunner(Workload workload, LoadTestSettings settings, Statistics statistics) {
+        this.workload = workload;
+        this.settings = settings;
+        this.statistics = statistics;
+        for (Operation operation : Operation.values()) {
+            histograms.put(operation, new ConcurrentHistogram(TimeUnit.MINUTES.toNanos(1), 3));
+            errors.put(operation, new LongAdder());
+        }
+    }
+
+    void run() throws InterruptedException {
+        long warmupEnd = System.nanoTime() + TimeUnit.SECONDS.toNanos(settings.getWarmupSeconds());
+        long end = warmupEnd + TimeUnit.SECONDS.toNanos(settings.getDurationSeconds());
+        CountDownLatch done = new CountDownLatch(settings.getThreads());
+        for (int t = 0; t < settings.getThreads(); t++) {
+            Thread thread = new Thread(() -> {
+                try {
+                    loop(end);
+                } finally {
+                    done.countDown();
+                }
+            }, "load-" + t);
+            thread.start();
+        }
+
+        Thread.sleep(TimeUnit.NANOSECONDS.toMillis(Math.max(0, warmupEnd - System.nanoTime())));
+        histograms.values().forEach(Histogram::reset);
+        errors.values().forEach(LongAdder::reset);
+        statistics.clear();
+
+        done.await();
+        report();
+    }
+
+    private void loop(long end) {
+        while (System.nanoTime() < end) {
+            Operation operation = workload.pick();
+            long start = System.nanoTime();
+            try {
+                workload.execute(operation);
+                histograms.get(operation).recordValue(Math.min(System.nanoTime() - start, TimeUnit.MINUTES.toNanos(1)));
+            } catch (RuntimeException e) {
+                errors.get(operation).increment();
+            }
+        }
+    }
+
+    private void report() {
+        System.out.println("=== load test " + settings);
+        System.out.printf("%-12s %10s %8s %10s %10s %10s %10s %10s%n",
+                "operation", "count", "errors", "p50(us)", "p90(us)", "p99(us)", "p99.9(us)", "max(us)");
+        long total = 0;
+        for (Operation operation : Operation.values()) {
+            Histogram h = histograms.get(operation);
+            total += h.getTotalCount();
+            System.out.printf("%-12s %10d %8d %10d %10d %10d %10d %10d%n",
+                    operation, h.getTotalCount(), errors.get(operation).sum(),
+                    micros(h.getValueAtPercentile(50)), micros(h.getValueAtPercentile(90)),
+                    micros(h.getValueAtPercentile(99)), micros(h.getValueAtPercentile(99.9)), micros(h.getMaxValue()));
+        }
+        System.out.printf("throughput = %.1f ops/s%n", total / (double) settings.getDurationSeconds());
+        System.out.printf("statements prepared=%d, queries=%d, entity loads=%d, inserts=%d, updates=%d, flushes=%d, transactions=%d%n",
+                statistics.getPrepareStatementCount(), statistics.getQueryExecutionCount(),
+                statistics.getEntityLoadCount(), statistics.getEntityInsertCount(),
+                statistics.getEntityUpdateCount(), statistics.getFlushCount(), statistics.getTransactionCount());
+    }
+
+    private static long micros(long nanos) {
+        return TimeUnit.NANOSECONDS.toMicros(nanos);
+    }
+}
@@ -0,0 +1,42 @@
+package jpa.jpastudy.loadtest;
+
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+
+/**
+ * -Dloadtest.xxx 로 바꿀 수 있는 부하 테스트 설정. (gradle loadTest -Dloadtest.threads=64)
+ */
+@Getter @Setter
+@ToString
+public class LoadTestSettings {
+    private int teams = 200;
+    private int members = 100_000;
+    private int products = 1_000;
+    private int orders = 200_000;
+    private double zipfExponent = 1.1;
+    // ADMIN 비율
+    private double adminRatio = 0.02;
+
+    private int threads = 32;
+    private int durationSeconds = 60;
+    private int warmupSeconds = 10;
+
+    // 작업 비율 (합이 100 일 필요는 없다)
+    private int readMemberWeight = 40;
+    private int teamFilterWeight = 25;
+    private int aggregateWeight = 10;
+    private int updateAgeWeight = 15;
+    private int placeOrderWeight = 10;
+
+    // ReadPathComparisonMain: 동시에 열어 두는 요청 수와 경로별 총 요청 수
+    private int readClients = 400;
+    private int readRequests = 4_000;
+
+    // TypeCodeBenchmarkMain: 테이블마다 넣을 행 수와 쿼리별 측정 횟수
+    private int typeCodeRows = 2_000_000;
+    private int typeCodeRuns = 10;
+
+    // AddressInterningBenchmarkMain: 메모리에 들고 있을 주문 수
+    private int interningOrders = 1_000_000;
+}
@@ -0,0 +1,9 @@
+package jpa.jpastudy.loadtest;
+
+enum Operation {
+    READ_MEMBER,
+    TEAM_FILTER,
+    AGGREGATE,
+    UPDATE_AGE,
+    PLACE_ORDER
+}
@@ -0,0 +1,129 @@
+package jpa.jpastudy.loadtest;
+
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jpa.jpastudy.JpastudyApplication;
+import jpa.jpastudy.read.ReactiveMemberReadService;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntSupplier;
+
+/**
+ * 같은 목록 API 를 블로킹(MVC + JPA 커서)과 논블로킹(Flux + R2DBC) 경로로 동시에 readClients 개씩 호출해
+ * 지연시간과 함께 그동안의 최대 JVM 스레드 수, 최대 사용 커넥션 수(Hikari / R2DBC 풀)를 비교한다.
+ * 실행: ./gradlew readPathComparison -Dloadtest.read-clients=400
+ */
+public class ReadPathComparisonMain {
+
+    public static void main(String[] args) throws Exception {
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(JpastudyApplication.class)
+                .properties("server.port=0", "logging.level.org.hibernate.SQL=info", "logging.level.org.apache.coyote.http11=info")
+                .run(args)) {
+
+            LoadTestSettings settings = Binder.get(context.getEnvironment())
+                    .bind("loadtest", LoadTestSettings.class)
+                    .orElseGet(LoadTestSettings::new);
+            EntityManagerFactory emf = context.getBean(EntityManagerFactory.class);
+            EntityManager em = SharedEntityManagerCreator.createSharedEntityManager(emf);
+            DataGenerator.GeneratedData data = new DataGenerator(em, context.getBean(TransactionTemplate.class), settings).generate();
+
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            HikariDataSource hikari = context.getBean(DataSource.class).unwrap(HikariDataSource.class);
+            ReactiveMemberReadService reactive = context.getBean(ReactiveMemberReadService.class);
+
+            // 워밍업 후 측정
+            for (boolean measure : new boolean[]{false, true}) {
+                Result blocking = run("http://localhost:" + port + "/teams/%d/members", data, settings,
+                        () -> hikari.getHikariPoolMXBean().getActiveConnections());
+                Result nonBlocking = run("http://localhost:" + port + "/reactive/teams/%d/members", data, settings,
+                        reactive::acquiredConnections);
+                if (measure) {
+                    System.out.println("=== read path comparison clients=" + settings.getReadClients() + ", requests=" + settings.getReadRequests());
+                    System.out.printf("%-10s %10s %10s %10s %8s %12s %12s%n",
+                            "path", "p50(ms)", "p99(ms)", "req/s", "errors", "peakThreads", "peakConns");
+                    blocking.print("blocking");
+                    nonBlocking.print("reactive");
+                }
+            }
+        }
+    }
+
+    private static Result run(String urlPattern, DataGenerator.GeneratedData data, LoadTestSettings settings,
+                              IntSupplier connectionsInUse) throws InterruptedException {
+        HttpClient client = HttpClient.newBuilder().build();
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        Histogram latency = new ConcurrentHistogram(TimeUnit.MINUTES.toNanos(1), 3);
+        LongAdder errors = new LongAdder();
+        AtomicInteger peakThreads = new AtomicInteger();
+        AtomicInteger peakConnections = new AtomicInteger();
+
+        Thread sampler = new Thread(() -> {
+            while (!Thread.currentThread().isInterrupted()) {
+                peakThreads.accumulateAndGet(threads.getThreadCount(), Math::max);
+                peakConnections.accumulateAndGet(connectionsInUse.getAsInt(), Math::max);
+                try {
+                    Thread.sleep(5);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        }, "read-path-sampler");
+        sampler.start();
+
+        Semaphore inFlight = new Semaphore(settings.getReadClients());
+        List<CompletableFuture<?>> futures = new ArrayList<>(settings.getReadRequests());
+        long start = System.nanoTime();
+        for (int i = 0; i < settings.getReadRequests(); i++) {
+            inFlight.acquire();
+            long teamId = data.teamIds()[data.teamPicker().next()];
+            HttpRequest request = HttpRequest.newBuilder(URI.create(String.format(urlPattern, teamId))).build();
+            long requestStart = System.nanoTime();
+            futures.add(client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((response, failure) -> {
+                        inFlight.release();
+                        if (failure != null || response.statusCode() != 200) {
+                            errors.increment();
+                        } else {
+                            latency.recordValue(Math.min(System.nanoTime() - requestStart, TimeUnit.MINUTES.toNanos(1)));
+                        }
+                    }));
+        }
+        CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).exceptionally(e -> null).join();
+        long elapsed = System.nanoTime() - start;
+        sampler.interrupt();
+        sampler.join();
+        return new Result(latency, errors.sum(), settings.getReadRequests() / (elapsed / 1e9), peakThreads.get(), peakConnections.get());
+    }
+
+    private record Result(Histogram latency, long errors, double requestsPerSecond, int peakThreads, int peakConnections) {
+
+        void print(String path) {
+            System.out.printf("%-10s %10d %10d %10.1f %8d %12d %12d%n", path,
+                    TimeUnit.NANOSECONDS.toMillis(latency.getValueAtPercentile(50)),
+                    TimeUnit.NANOSECONDS.toMillis(latency.getValueAtPercentile(99)),
+                    requestsPerSecond, errors, peakThreads, peakConnections);
+        }
+    }
+}
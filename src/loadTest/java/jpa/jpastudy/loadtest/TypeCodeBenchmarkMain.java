@@ -0,0 +1,123 @@
+package jpa.jpastudy.loadtest;
+
+import jpa.jpastudy.JpastudyApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * item 과 같은 모양의 임시 테이블 두 개(DTYPE varchar(31) / tinyint)에 같은 데이터를 넣고
+ * (dtype, price) 인덱스 크기와 인덱스 범위 스캔 / 전체 인덱스 스캔 시간을 비교한다. MySQL(InnoDB) 에서 실행한다.
+ * 실행: ./gradlew typeCodeBenchmark -Dloadtest.type-code-rows=2000000
+ * 측정이 끝나면 임시 테이블은 지운다.
+ */
+public class TypeCodeBenchmarkMain {
+
+    private static final int BATCH = 5_000;
+
+    // 하위 타입 세 개를 6:3:1 로 섞는다. 예전 문자열 값과 지금 코드
+    private static final String[] NAMES = {"BB", "MV", "AL"};
+    private static final int[] CODES = {1, 2, 3};
+
+    public static void main(String[] args) {
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(JpastudyApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties("logging.level.org.hibernate.SQL=info")
+                .run(args)) {
+
+            LoadTestSettings settings = Binder.get(context.getEnvironment())
+                    .bind("loadtest", LoadTestSettings.class)
+                    .orElseGet(LoadTestSettings::new);
+            JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+
+            List<Result> results = new ArrayList<>();
+            results.add(run(jdbcTemplate, settings, "bench_dtype_varchar", "varchar(31)", NAMES[0], i -> NAMES[i]));
+            results.add(run(jdbcTemplate, settings, "bench_dtype_tinyint", "tinyint", CODES[0], i -> CODES[i]));
+
+            System.out.println("=== discriminator type rows=" + settings.getTypeCodeRows() + ", runs=" + settings.getTypeCodeRuns());
+            System.out.printf("%-12s %14s %14s %16s %16s%n", "dtype", "index(KB)", "data(KB)", "range p50(ms)", "full p50(ms)");
+            results.forEach(Result::print);
+        }
+    }
+
+    private static Result run(JdbcTemplate jdbcTemplate, LoadTestSettings settings, String table, String columnType,
+                              Object firstType, TypeValue typeValue) {
+        jdbcTemplate.execute("drop table if exists " + table);
+        jdbcTemplate.execute("create table " + table + " ("
+                + "item_id bigint not null auto_increment, "
+                + "dtype " + columnType + " not null, "
+                + "name varchar(255), "
+                + "price int not null, "
+                + "primary key (item_id), "
+                + "key idx_dtype_price (dtype, price)) engine=InnoDB");
+        try {
+            seed(jdbcTemplate, table, settings.getTypeCodeRows(), typeValue);
+            jdbcTemplate.execute("analyze table " + table);
+
+            Map<String, Object> size = jdbcTemplate.queryForMap(
+                    "select data_length, index_length from information_schema.tables where table_schema = database() and table_name = ?",
+                    table);
+            // 인덱스 범위 스캔: type(i) = Book and price > ?
+            long range = median(settings.getTypeCodeRuns(), () -> jdbcTemplate.queryForObject(
+                    "select count(*) from " + table + " where dtype = ? and price > ?", Long.class, firstType, 9_000));
+            // 보조 인덱스 전체 스캔
+            long full = median(settings.getTypeCodeRuns(), () -> jdbcTemplate.queryForList(
+                    "select dtype, count(*) from " + table + " force index (idx_dtype_price) group by dtype"));
+            return new Result(columnType, ((Number) size.get("index_length")).longValue(),
+                    ((Number) size.get("data_length")).longValue(), range, full);
+        } finally {
+            jdbcTemplate.execute("drop table if exists " + table);
+        }
+    }
+
+    private static void seed(JdbcTemplate jdbcTemplate, String table, int rows, TypeValue typeValue) {
+        String sql = "insert into " + table + " (dtype, name, price) values (?, ?, ?)";
+        List<Object[]> batch = new ArrayList<>(BATCH);
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int i = 0; i < rows; i++) {
+            int r = random.nextInt(10);
+            int type = r < 6 ? 0 : r < 9 ? 1 : 2;
+            batch.add(new Object[]{typeValue.of(type), "상품" + i, random.nextInt(10_000)});
+            if (batch.size() == BATCH) {
+                jdbcTemplate.batchUpdate(sql, batch);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            jdbcTemplate.batchUpdate(sql, batch);
+        }
+    }
+
+    // 첫 실행은 버퍼 풀 워밍업으로 버린다.
+    private static long median(int runs, Runnable query) {
+        query.run();
+        long[] elapsed = new long[runs];
+        for (int i = 0; i < runs; i++) {
+            long start = System.nanoTime();
+            query.run();
+            elapsed[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(elapsed);
+        return TimeUnit.NANOSECONDS.toMillis(elapsed[runs / 2]);
+    }
+
+    private interface TypeValue {
+        Object of(int type);
+    }
+
+    private record Result(String columnType, long indexBytes, long dataBytes, long rangeMillis, long fullMillis) {
+
+        void print() {
+            System.out.printf("%-12s %14d %14d %16d %16d%n", columnType, indexBytes / 1024, dataBytes / 1024, rangeMillis, fullMillis);
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package jpa.jpastudy.loadtest;
+
+import jakarta.persistence.EntityManager;
+import jpa.jpastudy.cache.QueryResultCache;
+import jpa.jpastudy.jpql.Member;
+import jpa.jpastudy.order.OrderPlacementService;
+import jpa.jpastudy.read.MemberReadService;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 서비스 계층을 직접 호출하는 읽기/쓰기 혼합 작업. 어떤 작업을 할지는 가중치로 고른다.
+ */
+class Workload {
+
+    private final EntityManager em;
+    private final TransactionTemplate transactionTemplate;
+    private final MemberReadService memberReadService;
+    private final QueryResultCache queryResultCache;
+    private final OrderPlacementService orderPlacementService;
+    private final DataGenerator.GeneratedData data;
+    private final Operation[] table;
+
+    Workload(EntityManager em, TransactionTemplate transactionTemplate, MemberReadService memberReadService,
+             QueryResultCache queryResultCache, OrderPlacementService orderPlacementService,
+             DataGenerator.GeneratedData data, LoadTestSettings settings) {
+        this.em = em;
+        this.transactionTemplate = transactionTemplate;
+        this.memberReadService = memberReadService;
+        this.queryResultCache = queryResultCache;
+        this.orderPlacementService = orderPlacementService;
+        this.data = data;
+        this.table = weightTable(Map.of(
+                Operation.READ_MEMBER, settings.getReadMemberWeight(),
+                Operation.TEAM_FILTER, settings.getTeamFilterWeight(),
+                Operation.AGGREGATE, settings.getAggregateWeight(),
+                Operation.UPDATE_AGE, settings.getUpdateAgeWeight(),
+                Operation.PLACE_ORDER, settings.getPlaceOrderWeight()));
+    }
+
+    Operation pick() {
+        return table[ThreadLocalRandom.current().nextInt(table.length)];
+    }
+
+    void execute(Operation operation) {
+        switch (operation) {
+            case READ_MEMBER -> memberReadService.findMember(randomMember());
+            case TEAM_FILTER -> transactionTemplate.executeWithoutResult(status ->
+                    em.createQuery("select m from Member m where m.team.id = :teamId and m.age > :age", Member.class)
+                            .setParameter("teamId", hotTeam())
+                            .setParameter("age", 10)
+                            .getResultList());
+            case AGGREGATE -> queryResultCache.getResultList(
+                    "select avg(m.age) from Member m where m.team.id = :teamId", Double.class,
+                    Map.of("teamId", hotTeam()));
+            case UPDATE_AGE -> transactionTemplate.executeWithoutResult(status -> {
+                Member member = em.find(Member.class, randomMember());
+                member.setAge(member.getAge() + 1);
+            });
+            case PLACE_ORDER -> orderPlacementService.place(
+                    data.productIds()[data.productPicker().next()], DataGenerator.address(data.cityPicker())).join();
+        }
+    }
+
+    private long randomMember() {
+        return data.memberIds()[ThreadLocalRandom.current().nextInt(data.memberIds().length)];
+    }
+
+    private long hotTeam() {
+        return data.teamIds()[data.teamPicker().next()];
+    }
+
+    private static Operation[] weightTable(Map<Operation, Integer> weights) {
+        int total = weights.values().stream().mapToInt(Integer::intValue).sum();
+        Operation[] table = new Operation[total];
+        int i = 0;
+        for (Operation operation : Operation.values()) {
+            for (int w = 0; w < weights.get(operation); w++) {
+                table[i++] = operation;
+            }
+        }
+        return table;
+    }
+}
@@ -0,0 +1,34 @@
+package jpa.jpastudy.loadtest;
+
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 1..n 순위에 대해 P(k) ∝ 1 / k^s 를 따르는 표본기. 누적분포를 미리 만들어 두고 이진 탐색으로 뽑는다.
+ * 반환값은 0 부터 시작하는 순위(0 이 가장 자주 나온다)다.
+ */
+class Zipf {
+
+    private final double[] cdf;
+
+    Zipf(int n, double exponent) {
+        cdf = new double[n];
+        double sum = 0;
+        for (int k = 1; k <= n; k++) {
+            sum += 1.0 / Math.pow(k, exponent);
+            cdf[k - 1] = sum;
+        }
+        for (int i = 0; i < n; i++) {
+            cdf[i] /= sum;
+        }
+    }
+
+    int next() {
+        int index = Arrays.binarySearch(cdf, ThreadLocalRandom.current().nextDouble());
+        return Math.min(index >= 0 ? index : -index - 1, cdf.length - 1);
+    }
+
+    double probability(int rank) {
+        return rank == 0 ? cdf[0] : cdf[rank] - cdf[rank - 1];
+    }
+}
@@ -2,12 +2,16 @@ package jpa.jpastudy;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
 
 @SpringBootApplication
 public class JpastudyApplication {
 
 	public static void main(String[] args) {
-		SpringApplication.run(JpastudyApplication.class, args);
+		SpringApplication application = new SpringApplication(JpastudyApplication.class);
+		// 기동 단계별 소요 시간을 기록한다. (StartupTimingReporter)
+		application.setApplicationStartup(new BufferingApplicationStartup(4096));
+		application.run(args);
 	}
 
 }
@@ -0,0 +1,27 @@
+package jpa.jpastudy.cache;
+
+import org.hibernate.Interceptor;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.Map;
+import java.util.function.Supplier;
+
+@Configuration
+public class QueryCacheConfig {
+
+    @Bean
+    public HibernatePropertiesCustomizer tableWriteInspectorCustomizer(TableVersions tableVersions) {
+        return properties -> properties.putAll(hibernateProperties(tableVersions));
+    }
+
+    // 샤드처럼 스프링 밖에서 만드는 EntityManagerFactory 에도 같은 설정을 넘긴다.
+    public static Map<String, Object> hibernateProperties(TableVersions tableVersions) {
+        Supplier<Interceptor> tracker = () -> new TableWriteTracker(tableVersions);
+        return Map.of(
+                AvailableSettings.STATEMENT_INSPECTOR, new TableWriteInspector(tableVersions),
+                AvailableSettings.SESSION_SCOPED_INTERCEPTOR, tracker);
+    }
+}
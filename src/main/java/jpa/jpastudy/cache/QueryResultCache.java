@@ -0,0 +1,154 @@
+package jpa.jpastudy.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import lombok.Getter;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 비싼 JPQL 집계/프로젝션 결과를 (정규화한 쿼리 + 파라미터) 키로 캐시한다.
+ * 쿼리가 읽는 테이블의 버전을 같이 저장해 두고, 조회할 때 버전이 바뀌었으면 다시 실행한다.
+ * 현재 트랜잭션이 그 테이블에 아직 커밋하지 않은 쓰기를 했거나 flush 되지 않은 변경이 있으면 캐시를 읽지도 저장하지도 않는다.
+ * 결과는 여러 트랜잭션이 공유하므로 엔티티가 아니라 스칼라/DTO를 조회하는 쿼리에만 사용해야 한다.
+ */
+@Component
+public class QueryResultCache {
+
+    @PersistenceContext
+    EntityManager em;
+
+    private final EntityManagerFactory emf;
+    private final TableVersions tableVersions;
+    private final Cache<Key, Entry> cache;
+    private final Map<String, String[]> dependencies = new ConcurrentHashMap<>();
+    private final Map<String, QueryStats> stats = new ConcurrentHashMap<>();
+
+    public QueryResultCache(EntityManagerFactory emf, TableVersions tableVersions,
+                            @Value("${jpastudy.query-cache.maximum-size:10000}") long maximumSize) {
+        // deferred bootstrap 에서 EntityManagerFactory 완성을 기다리지 않도록 SessionFactory 는 처음 쓸 때 꺼낸다.
+        this.emf = emf;
+        this.tableVersions = tableVersions;
+        // Caffeine의 기본 eviction 정책이 W-TinyLFU
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .build();
+    }
+
+    public <T> List<T> getResultList(String jpql, Class<T> resultClass) {
+        return getResultList(jpql, resultClass, Map.of());
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> List<T> getResultList(String jpql, Class<T> resultClass, Map<String, ?> params) {
+        String normalized = normalize(jpql);
+        Key key = new Key(normalized, resultClass, new TreeMap<>(params));
+        QueryStats queryStats = stats.computeIfAbsent(normalized, q -> new QueryStats());
+        String[] tables = dependencies.computeIfAbsent(normalized, q -> resolveTables(jpql, resultClass));
+
+        // 커밋 전의 내 변경이 다른 트랜잭션에 보이면 안 되므로 캐시를 거치지 않는다.
+        if (TableWriteTracker.hasPendingWrites(tables) || hasUnflushedChanges()) {
+            queryStats.bypasses.increment();
+            return execute(jpql, resultClass, params);
+        }
+
+        Entry entry = cache.getIfPresent(key);
+        if (entry != null) {
+            if (Arrays.equals(entry.versions(), tableVersions.snapshot(tables))) {
+                queryStats.hits.increment();
+                return (List<T>) entry.result();
+            }
+            queryStats.invalidations.increment();
+        }
+        queryStats.misses.increment();
+
+        // 실행 전에 버전을 읽어야 실행 도중 커밋된 변경을 놓치지 않는다.
+        long[] versions = tableVersions.snapshot(tables);
+        List<T> result = execute(jpql, resultClass, params);
+        cache.put(key, new Entry(result, versions));
+        return result;
+    }
+
+    String[] dependencies(String jpql) {
+        return dependencies.get(normalize(jpql));
+    }
+
+    // 인스펙터는 flush 된 SQL 만 본다. 캐시를 읽으면 쿼리 전 AUTO flush 도 건너뛰므로, 아직 flush 되지 않은 변경이 있으면 캐시를 거치지 않는다.
+    private boolean hasUnflushedChanges() {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            return false;
+        }
+        return em.unwrap(SessionImplementor.class).isDirty();
+    }
+
+    // 현재 트랜잭션과 무관하게 변환만 하도록 별도 세션을 잠깐 연다.
+    private String[] resolveTables(String jpql, Class<?> resultClass) {
+        try (SessionImplementor session = (SessionImplementor) emf.unwrap(SessionFactoryImplementor.class).openSession()) {
+            return QuerySpaces.of(session, jpql, resultClass);
+        }
+    }
+
+    private <T> List<T> execute(String jpql, Class<T> resultClass, Map<String, ?> params) {
+        TypedQuery<T> query = em.createQuery(jpql, resultClass);
+        params.forEach(query::setParameter);
+        return List.copyOf(query.getResultList());
+    }
+
+    public Map<String, QueryStats> stats() {
+        return stats;
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    // 따옴표 밖의 연속 공백을 하나로 줄인다.
+    static String normalize(String jpql) {
+        StringBuilder sb = new StringBuilder(jpql.length());
+        boolean quoted = false;
+        boolean space = false;
+        for (char c : jpql.trim().toCharArray()) {
+            if (c == '\'') {
+                quoted = !quoted;
+            }
+            if (!quoted && Character.isWhitespace(c)) {
+                space = true;
+                continue;
+            }
+            if (space) {
+                sb.append(' ');
+                space = false;
+            }
+            sb.append(c);
+        }
+        return sb.toString();
+    }
+
+    @Getter
+    public static class QueryStats {
+        private final LongAdder hits = new LongAdder();
+        private final LongAdder misses = new LongAdder();
+        private final LongAdder invalidations = new LongAdder();
+        private final LongAdder bypasses = new LongAdder();
+    }
+
+    private record Key(String query, Class<?> resultClass, Map<String, ?> params) {
+    }
+
+    private record Entry(List<?> result, long[] versions) {
+    }
+}
@@ -0,0 +1,45 @@
+package jpa.jpastudy.cache;
+
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.query.sqm.internal.QuerySqmImpl;
+import org.hibernate.query.sqm.tree.select.SqmSelectStatement;
+import org.hibernate.sql.ast.tree.select.SelectStatement;
+import org.hibernate.sql.exec.spi.JdbcParameterBindings;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * JPQL 을 Hibernate 가 실제로 실행할 SQL AST 로 변환해서 읽는 테이블을 구한다.
+ * 명시적 join, m.team.name 같은 경로의 암시적 join, 서브쿼리, 상속 테이블이 모두 포함된다.
+ */
+final class QuerySpaces {
+
+    private QuerySpaces() {
+    }
+
+    static String[] of(SessionImplementor session, String jpql, Class<?> resultClass) {
+        SessionFactoryImplementor sessionFactory = session.getFactory();
+        QuerySqmImpl<?> query = (QuerySqmImpl<?>) session.createQuery(jpql, resultClass);
+        SelectStatement sqlAst = sessionFactory.getQueryEngine().getSqmTranslatorFactory()
+                .createSelectTranslator(
+                        (SqmSelectStatement<?>) query.getSqmStatement(),
+                        query.getQueryOptions(),
+                        query.getDomainParameterXref(),
+                        query.getQueryParameterBindings(),
+                        session.getLoadQueryInfluencers(),
+                        sessionFactory,
+                        false)
+                .translate()
+                .getSqlAst();
+        // 렌더링만 하고 실행하지 않으므로 파라미터 바인딩은 필요 없다.
+        Set<String> tables = new LinkedHashSet<>();
+        sessionFactory.getJdbcServices().getJdbcEnvironment().getSqlAstTranslatorFactory()
+                .buildSelectTranslator(sessionFactory, sqlAst)
+                .translate(JdbcParameterBindings.NO_BINDINGS, query.getQueryOptions())
+                .getAffectedTableNames()
+                .forEach(table -> tables.add(TableVersions.normalize(table)));
+        return tables.toArray(String[]::new);
+    }
+}
@@ -0,0 +1,42 @@
+package jpa.jpastudy.cache;
+
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 테이블별 변경 카운터. 테이블에 쓰기가 일어날 때마다 올라가고, 캐시 항목은 저장 시점의 값과 비교해 무효 여부를 판단한다.
+ */
+@Component
+public class TableVersions {
+
+    private final ConcurrentHashMap<String, AtomicLong> versions = new ConcurrentHashMap<>();
+
+    public long version(String table) {
+        return counter(table).get();
+    }
+
+    public void bump(String table) {
+        counter(table).incrementAndGet();
+    }
+
+    public long[] snapshot(String[] tables) {
+        long[] snapshot = new long[tables.length];
+        for (int i = 0; i < tables.length; i++) {
+            snapshot[i] = version(tables[i]);
+        }
+        return snapshot;
+    }
+
+    public static String normalize(String table) {
+        String name = table.replace("`", "").replace("\"", "");
+        int dot = name.lastIndexOf('.');
+        return (dot < 0 ? name : name.substring(dot + 1)).toLowerCase(Locale.ROOT);
+    }
+
+    private AtomicLong counter(String table) {
+        return versions.computeIfAbsent(normalize(table), t -> new AtomicLong());
+    }
+}
@@ -0,0 +1,30 @@
+package jpa.jpastudy.cache;
+
+import lombok.RequiredArgsConstructor;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Hibernate가 실행하는 insert / update / delete SQL에서 대상 테이블을 찾아 TableWriteTracker 에 기록한다.
+ * flush로 나가는 SQL과 JPQL 벌크 연산 SQL을 모두 여기서 본다. 버전은 트랜잭션이 커밋된 뒤에 올라간다.
+ */
+@RequiredArgsConstructor
+public class TableWriteInspector implements StatementInspector {
+
+    private static final Pattern DML = Pattern.compile(
+            "^\\s*(?:/\\*.*?\\*/\\s*)*(?:insert\\s+into|update|delete\\s+from)\\s+([`\"\\w.]+)",
+            Pattern.CASE_INSENSITIVE | Pattern.DOTALL);
+
+    private final TableVersions tableVersions;
+
+    @Override
+    public String inspect(String sql) {
+        Matcher matcher = DML.matcher(sql);
+        if (matcher.find()) {
+            TableWriteTracker.written(matcher.group(1), tableVersions);
+        }
+        return sql;
+    }
+}
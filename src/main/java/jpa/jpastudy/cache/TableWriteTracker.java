@@ -0,0 +1,69 @@
+package jpa.jpastudy.cache;
+
+import org.hibernate.Interceptor;
+import org.hibernate.Transaction;
+import org.hibernate.resource.transaction.spi.TransactionStatus;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * 세션마다 하나씩 생성되어(hibernate.session_factory.session_scoped_interceptor) 그 세션의 트랜잭션이 쓴 테이블을 모아 두고,
+ * 커밋된 뒤에만 TableVersions 를 올린다. Hibernate 트랜잭션 콜백이라 스프링이 관리하지 않는 세션(샤드)도 똑같이 처리된다.
+ * JDBC 작업은 트랜잭션을 시작한 스레드에서 일어나므로, SQL 을 보는 TableWriteInspector 는 현재 스레드에서 진행 중인 트랜잭션에 기록한다.
+ */
+public class TableWriteTracker implements Interceptor {
+
+    // REQUIRES_NEW 처럼 한 스레드에서 트랜잭션이 겹칠 수 있어 스택으로 둔다.
+    private static final ThreadLocal<Deque<TableWriteTracker>> ACTIVE = ThreadLocal.withInitial(ArrayDeque::new);
+
+    private final TableVersions tableVersions;
+    private final Set<String> pendingWrites = new HashSet<>();
+
+    public TableWriteTracker(TableVersions tableVersions) {
+        this.tableVersions = tableVersions;
+    }
+
+    @Override
+    public void afterTransactionBegin(Transaction tx) {
+        pendingWrites.clear();
+        ACTIVE.get().push(this);
+    }
+
+    @Override
+    public void afterTransactionCompletion(Transaction tx) {
+        ACTIVE.get().removeFirstOccurrence(this);
+        if (tx == null || tx.getStatus() != TransactionStatus.ROLLED_BACK) {
+            pendingWrites.forEach(tableVersions::bump);
+        }
+        pendingWrites.clear();
+    }
+
+    /**
+     * 현재 스레드에서 진행 중인 트랜잭션이 tables 중 하나에 아직 커밋되지 않은 쓰기를 했는지.
+     */
+    public static boolean hasPendingWrites(String[] tables) {
+        TableWriteTracker current = ACTIVE.get().peek();
+        if (current == null) {
+            return false;
+        }
+        for (String table : tables) {
+            if (current.pendingWrites.contains(table)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // 트랜잭션 밖에서 실행된 SQL 은 바로 커밋된 것이므로 즉시 올린다.
+    static void written(String table, TableVersions tableVersions) {
+        TableWriteTracker current = ACTIVE.get().peek();
+        if (current == null) {
+            tableVersions.bump(table);
+        } else {
+            current.pendingWrites.add(TableVersions.normalize(table));
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package jpa.jpastudy.code;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * CodedEnum 의 코드 중복과 퇴역 코드 재사용을 검사한다. 문제가 있으면 컨버터 생성(=기동) 시점에 실패한다.
+ */
+public final class CodeRegistry {
+
+    // 저장 컬럼이 tinyint
+    static final int MIN_CODE = 0;
+    static final int MAX_CODE = 127;
+
+    private CodeRegistry() {
+    }
+
+    public static <E extends Enum<E> & CodedEnum> Map<Integer, E> register(Class<E> enumClass) {
+        Set<Integer> retired = new HashSet<>();
+        RetiredCodes retiredCodes = enumClass.getAnnotation(RetiredCodes.class);
+        if (retiredCodes != null) {
+            for (int code : retiredCodes.value()) {
+                retired.add(code);
+            }
+        }
+
+        Map<Integer, E> byCode = new HashMap<>();
+        for (E constant : enumClass.getEnumConstants()) {
+            int code = constant.getCode();
+            if (code < MIN_CODE || code > MAX_CODE) {
+                throw new IllegalStateException(enumClass.getSimpleName() + "." + constant + " 코드 범위 초과: " + code);
+            }
+            if (retired.contains(code)) {
+                throw new IllegalStateException(enumClass.getSimpleName() + "." + constant + " 가 퇴역 코드 " + code + " 를 재사용합니다.");
+            }
+            E previous = byCode.put(code, constant);
+            if (previous != null) {
+                throw new IllegalStateException(enumClass.getSimpleName() + "." + previous + " 와 " + constant + " 의 코드가 같습니다: " + code);
+            }
+        }
+        return Map.copyOf(byCode);
+    }
+}
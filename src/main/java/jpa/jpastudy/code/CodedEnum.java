@@ -0,0 +1,9 @@
+package jpa.jpastudy.code;
+
+/**
+ * DB 에 이름 대신 작은 정수 코드로 저장되는 enum. 코드는 한 번 정하면 바꾸거나 다른 상수에 다시 쓰면 안 된다.
+ */
+public interface CodedEnum {
+
+    int getCode();
+}
@@ -0,0 +1,36 @@
+package jpa.jpastudy.code;
+
+import jakarta.persistence.AttributeConverter;
+
+import java.util.Map;
+
+/**
+ * CodedEnum 을 tinyint 코드로 저장하는 컨버터의 공통 구현. enum 마다 상속해서 @Converter 를 붙인다.
+ */
+public abstract class CodedEnumConverter<E extends Enum<E> & CodedEnum> implements AttributeConverter<E, Integer> {
+
+    private final Class<E> enumClass;
+    private final Map<Integer, E> byCode;
+
+    protected CodedEnumConverter(Class<E> enumClass) {
+        this.enumClass = enumClass;
+        this.byCode = CodeRegistry.register(enumClass);
+    }
+
+    @Override
+    public Integer convertToDatabaseColumn(E attribute) {
+        return attribute == null ? null : attribute.getCode();
+    }
+
+    @Override
+    public E convertToEntityAttribute(Integer dbData) {
+        if (dbData == null) {
+            return null;
+        }
+        E constant = byCode.get(dbData);
+        if (constant == null) {
+            throw new IllegalArgumentException(enumClass.getSimpleName() + " 에 없는 코드입니다: " + dbData);
+        }
+        return constant;
+    }
+}
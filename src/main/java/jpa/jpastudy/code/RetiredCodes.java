@@ -0,0 +1,15 @@
+package jpa.jpastudy.code;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 삭제된 상수가 쓰던 코드. 기존 데이터에 남아 있을 수 있으므로 새 상수에 재사용하지 못하게 막는다.
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface RetiredCodes {
+    int[] value();
+}
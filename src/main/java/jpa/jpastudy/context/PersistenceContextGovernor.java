@@ -0,0 +1,199 @@
+package jpa.jpastudy.context;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jpa.jpastudy.hibernate.HibernateEvents;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.SessionEventListener;
+import org.hibernate.engine.spi.EntityEntry;
+import org.hibernate.engine.spi.PersistenceContext;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.FlushEvent;
+import org.hibernate.event.spi.FlushEventListener;
+import org.hibernate.proxy.HibernateProxy;
+import org.hibernate.proxy.LazyInitializer;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 한 트랜잭션에서 계속 persist 하는 배치 코드의 영속성 컨텍스트 크기를 제한한다.
+ * 루프 안에서 checkpoint(em)를 부르면 관리 엔티티 수나 추정 힙 사용량이 한도를 넘었을 때 flush 후 비운다.
+ * pin()한 엔티티는 비울 때 남겨 두므로 루프 밖에서 계속 쓰는 엔티티(예: 모든 회원이 참조하는 팀)는 영속 상태가 유지된다.
+ * checkpoint 를 부르지 않는 세션도 flush 시점에 경고 한도를 넘으면 세션당 한 번 경고 로그를 남긴다.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class PersistenceContextGovernor implements FlushEventListener, SmartInitializingSingleton {
+
+    // EntityEntry, EntityKey, 맵 노드, 엔티티 객체 헤더를 합친 대략치
+    private static final int ENTITY_OVERHEAD_BYTES = 200;
+    private static final int COLLECTION_OVERHEAD_BYTES = 150;
+    // 엔티티 필드와 loadedState 스냅샷의 참조 한 칸씩
+    private static final int SLOT_BYTES = 16;
+
+    private final EntityManagerFactory emf;
+
+    private final Map<SessionImplementor, SessionState> sessions = new ConcurrentHashMap<>();
+
+    @Value("${jpastudy.context-governor.max-entities:5000}")
+    private int maxEntities;
+
+    @Value("${jpastudy.context-governor.max-heap-bytes:67108864}")
+    private long maxHeapBytes;
+
+    // 힙 추정은 O(n) 이라 관리 엔티티가 이만큼 늘 때마다 한 번만 한다.
+    @Value("${jpastudy.context-governor.estimate-interval:1000}")
+    private int estimateInterval;
+
+    @Value("${jpastudy.context-governor.warn-entities:10000}")
+    private int warnEntities;
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        HibernateEvents.registry(emf).appendListeners(EventType.FLUSH, this);
+    }
+
+    /**
+     * 한도를 넘었으면 flush 하고 pin 되지 않은 엔티티를 모두 준영속으로 만든다. 비웠으면 true.
+     * 트랜잭션 안에서 불러야 한다.
+     */
+    public boolean checkpoint(EntityManager em) {
+        SessionImplementor session = em.unwrap(SessionImplementor.class);
+        int managed = session.getPersistenceContextInternal().getNumberOfManagedEntities();
+        SessionState state = sessions.get(session);
+        if (managed < maxEntities && !overHeapBudget(session, state, managed)) {
+            return false;
+        }
+
+        long start = System.nanoTime();
+        session.flush();
+        int kept = release(session, state);
+        if (state != null) {
+            state.estimatedAt = 0;
+            state.checkpoints++;
+        }
+        log.debug("persistence context checkpoint: {} managed -> {} kept, {} ms",
+                managed, kept, (System.nanoTime() - start) / 1_000_000);
+        return true;
+    }
+
+    // checkpoint 가 비울 때 남겨 둘 엔티티. 프록시면 초기화된 경우에만 실제 엔티티를 pin 한다.
+    public void pin(EntityManager em, Object entity) {
+        Object target = unproxy(entity);
+        if (target != null) {
+            state(em.unwrap(SessionImplementor.class)).pinned.add(target);
+        }
+    }
+
+    public void unpin(EntityManager em, Object entity) {
+        SessionState state = sessions.get(em.unwrap(SessionImplementor.class));
+        Object target = unproxy(entity);
+        if (state != null && target != null) {
+            state.pinned.remove(target);
+        }
+    }
+
+    public long estimateHeapBytes(EntityManager em) {
+        return estimate(em.unwrap(SessionImplementor.class).getPersistenceContextInternal());
+    }
+
+    @Override
+    public void onFlush(FlushEvent event) {
+        SessionImplementor session = event.getSession();
+        int managed = session.getPersistenceContextInternal().getNumberOfManagedEntities();
+        if (managed < warnEntities) {
+            return;
+        }
+        SessionState state = state(session);
+        if (!state.warned) {
+            state.warned = true;
+            log.warn("persistence context has {} managed entities (~{} KB) after flushing {}, checkpoints so far: {}."
+                            + " Call PersistenceContextGovernor.checkpoint(em) in long-running loops.",
+                    managed, estimate(session.getPersistenceContextInternal()) / 1024,
+                    event.getNumberOfEntitiesProcessed(), state.checkpoints);
+        }
+    }
+
+    private boolean overHeapBudget(SessionImplementor session, SessionState state, int managed) {
+        int since = managed - (state == null ? 0 : state.estimatedAt);
+        if (since < estimateInterval) {
+            return false;
+        }
+        SessionState current = state == null ? state(session) : state;
+        current.estimatedAt = managed;
+        return estimate(session.getPersistenceContextInternal()) > maxHeapBytes;
+    }
+
+    private int release(SessionImplementor session, SessionState state) {
+        if (state == null || state.pinned.isEmpty()) {
+            session.clear();
+            return 0;
+        }
+        PersistenceContext persistenceContext = session.getPersistenceContextInternal();
+        for (Map.Entry<Object, EntityEntry> entry : persistenceContext.reentrantSafeEntityEntries()) {
+            Object entity = entry.getKey();
+            // 앞에서 detach 가 cascade 되어 이미 빠졌을 수 있다.
+            if (!state.pinned.contains(entity) && session.contains(entity)) {
+                session.detach(entity);
+            }
+        }
+        return persistenceContext.getNumberOfManagedEntities();
+    }
+
+    // 문자열 외의 값 객체는 작거나 공유된다고 보고 참조 칸만 센다.
+    private static long estimate(PersistenceContext persistenceContext) {
+        long bytes = (long) persistenceContext.getCollectionEntriesSize() * COLLECTION_OVERHEAD_BYTES;
+        for (Map.Entry<Object, EntityEntry> entry : persistenceContext.reentrantSafeEntityEntries()) {
+            bytes += ENTITY_OVERHEAD_BYTES;
+            Object[] loadedState = entry.getValue().getLoadedState();
+            if (loadedState == null) {
+                continue;
+            }
+            for (Object value : loadedState) {
+                bytes += 2L * SLOT_BYTES;
+                if (value instanceof String s) {
+                    bytes += 40 + s.length();
+                }
+            }
+        }
+        return bytes;
+    }
+
+    private SessionState state(SessionImplementor session) {
+        return sessions.computeIfAbsent(session, s -> {
+            s.addEventListeners(new SessionEventListener() {
+                @Override
+                public void end() {
+                    sessions.remove(s);
+                }
+            });
+            return new SessionState();
+        });
+    }
+
+    private static Object unproxy(Object entity) {
+        LazyInitializer initializer = HibernateProxy.extractLazyInitializer(entity);
+        if (initializer == null) {
+            return entity;
+        }
+        return initializer.isUninitialized() ? null : initializer.getImplementation();
+    }
+
+    private static final class SessionState {
+
+        private final Set<Object> pinned = Collections.newSetFromMap(new IdentityHashMap<>());
+        private int estimatedAt;
+        private int checkpoints;
+        private boolean warned;
+    }
+}
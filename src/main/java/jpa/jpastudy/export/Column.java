@@ -0,0 +1,4 @@
+package jpa.jpastudy.export;
+
+public record Column(String name, ColumnType type) {
+}
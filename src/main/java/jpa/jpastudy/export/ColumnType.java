@@ -0,0 +1,35 @@
+package jpa.jpastudy.export;
+
+/**
+ * 컬럼 인코딩. 파일에는 id 가 기록되므로 값을 바꾸지 않는다.
+ */
+public enum ColumnType {
+
+    // 직전 값과의 차이를 zigzag varint 로 (id 처럼 정렬된 값이 작아진다)
+    LONG(1),
+    // zigzag varint
+    INT(2),
+    // 길이 + UTF-8
+    STRING(3),
+    // row group 마다 사전을 만들고 값은 사전 번호로 (city, zipcode 처럼 중복이 많은 문자열)
+    DICTIONARY(4);
+
+    private final int id;
+
+    ColumnType(int id) {
+        this.id = id;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    static ColumnType of(int id) {
+        for (ColumnType type : values()) {
+            if (type.id == id) {
+                return type;
+            }
+        }
+        throw new IllegalArgumentException("알 수 없는 컬럼 타입: " + id);
+    }
+}
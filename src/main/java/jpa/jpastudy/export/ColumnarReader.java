@@ -0,0 +1,156 @@
+package jpa.jpastudy.export;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * ColumnarWriter 가 쓴 파일을 row group 단위로 읽는다.
+ * 필요한 컬럼만 지정하면 나머지 컬럼은 압축을 풀지 않고 건너뛴다.
+ */
+public class ColumnarReader implements Closeable {
+
+    private final DataInputStream in;
+    private final List<Column> columns;
+    private final Inflater inflater = new Inflater();
+    private boolean finished;
+
+    public ColumnarReader(InputStream in) throws IOException {
+        this.in = new DataInputStream(new BufferedInputStream(in, 1 << 16));
+        byte[] magic = this.in.readNBytes(ColumnarWriter.MAGIC.length);
+        if (!Arrays.equals(magic, ColumnarWriter.MAGIC)) {
+            throw new IOException("컬럼 파일이 아닙니다.");
+        }
+        int version = this.in.readInt();
+        if (version != ColumnarWriter.VERSION) {
+            throw new IOException("지원하지 않는 버전: " + version);
+        }
+        int count = this.in.readInt();
+        List<Column> columns = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            columns.add(new Column(this.in.readUTF(), ColumnType.of(this.in.readUnsignedByte())));
+        }
+        this.columns = List.copyOf(columns);
+    }
+
+    public List<Column> columns() {
+        return columns;
+    }
+
+    /**
+     * 다음 row group. 더 없으면 null. projection 에 없는 컬럼 자리는 null 이다. (projection 이 null 이면 전부)
+     */
+    public RowGroup nextRowGroup(Set<String> projection) throws IOException {
+        if (finished) {
+            return null;
+        }
+        int rows = in.readInt();
+        if (rows == 0) {
+            finished = true;
+            return null;
+        }
+        Object[][] values = new Object[columns.size()][];
+        for (int i = 0; i < columns.size(); i++) {
+            int rawLength = in.readInt();
+            int compressedLength = in.readInt();
+            Column column = columns.get(i);
+            if (projection != null && !projection.contains(column.name())) {
+                in.skipNBytes(compressedLength);
+                continue;
+            }
+            values[i] = decode(column.type(), rows, inflate(in.readNBytes(compressedLength), rawLength));
+        }
+        return new RowGroup(rows, values);
+    }
+
+    public void forEachRow(Set<String> projection, Consumer<Object[]> consumer) throws IOException {
+        RowGroup group;
+        while ((group = nextRowGroup(projection)) != null) {
+            for (int row = 0; row < group.rowCount(); row++) {
+                consumer.accept(group.row(row));
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        inflater.end();
+        in.close();
+    }
+
+    private ByteBuffer inflate(byte[] compressed, int rawLength) throws IOException {
+        inflater.reset();
+        inflater.setInput(compressed);
+        byte[] raw = new byte[rawLength];
+        try {
+            int read = 0;
+            while (read < rawLength && !inflater.finished()) {
+                read += inflater.inflate(raw, read, rawLength - read);
+            }
+            if (read != rawLength) {
+                throw new IOException("컬럼 데이터가 잘렸습니다.");
+            }
+        } catch (DataFormatException e) {
+            throw new IOException("컬럼 데이터 압축 해제 실패", e);
+        }
+        return ByteBuffer.wrap(raw);
+    }
+
+    private static Object[] decode(ColumnType type, int rows, ByteBuffer in) {
+        byte[] nulls = new byte[(rows + 7) / 8];
+        in.get(nulls);
+        String[] dictionary = null;
+        if (type == ColumnType.DICTIONARY) {
+            dictionary = new String[(int) Encoding.readVarLong(in)];
+            for (int i = 0; i < dictionary.length; i++) {
+                dictionary[i] = Encoding.readString(in);
+            }
+        }
+
+        Object[] values = new Object[rows];
+        long previous = 0;
+        for (int row = 0; row < rows; row++) {
+            if ((nulls[row >> 3] & (1 << (row & 7))) != 0) {
+                continue;
+            }
+            switch (type) {
+                case LONG -> {
+                    previous += Encoding.unzigzag(Encoding.readVarLong(in));
+                    values[row] = previous;
+                }
+                case INT -> values[row] = (int) Encoding.unzigzag(Encoding.readVarLong(in));
+                case STRING -> values[row] = Encoding.readString(in);
+                case DICTIONARY -> values[row] = dictionary[(int) Encoding.readVarLong(in)];
+            }
+        }
+        return values;
+    }
+
+    /**
+     * values[컬럼][행]
+     */
+    public record RowGroup(int rowCount, Object[][] values) {
+
+        public Object value(int column, int row) {
+            return values[column] == null ? null : values[column][row];
+        }
+
+        public Object[] row(int row) {
+            Object[] result = new Object[values.length];
+            for (int column = 0; column < values.length; column++) {
+                result[column] = value(column, row);
+            }
+            return result;
+        }
+    }
+}
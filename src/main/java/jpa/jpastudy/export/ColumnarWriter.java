@@ -0,0 +1,165 @@
+package jpa.jpastudy.export;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.Deflater;
+
+/**
+ * 행을 받아 컬럼별로 모았다가 rowGroupSize 행마다 컬럼 단위로 deflate 압축해서 쓴다.
+ * 메모리에는 현재 row group 하나만 있다.
+ *
+ * 파일 구조: "JCOL" | version | 컬럼 수 | (이름, 타입)* | row group* | 0
+ * row group: 행 수 | 컬럼마다 (원본 길이, 압축 길이, 압축 데이터)
+ * 컬럼 데이터: null 비트맵 | (DICTIONARY 면 사전) | null 이 아닌 값들
+ */
+public class ColumnarWriter implements Closeable {
+
+    static final byte[] MAGIC = {'J', 'C', 'O', 'L'};
+    static final int VERSION = 1;
+
+    private final DataOutputStream out;
+    private final List<Column> columns;
+    private final int rowGroupSize;
+    private final ColumnChunk[] chunks;
+    private final Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION);
+    private int rows;
+    private long rowCount;
+
+    public ColumnarWriter(OutputStream out, List<Column> columns, int rowGroupSize) throws IOException {
+        this.out = new DataOutputStream(new BufferedOutputStream(out, 1 << 16));
+        this.columns = List.copyOf(columns);
+        this.rowGroupSize = rowGroupSize;
+        this.chunks = new ColumnChunk[columns.size()];
+        for (int i = 0; i < chunks.length; i++) {
+            chunks[i] = new ColumnChunk(columns.get(i).type());
+        }
+
+        this.out.write(MAGIC);
+        this.out.writeInt(VERSION);
+        this.out.writeInt(columns.size());
+        for (Column column : columns) {
+            this.out.writeUTF(column.name());
+            this.out.writeByte(column.type().getId());
+        }
+    }
+
+    public void write(Object... row) throws IOException {
+        if (row.length != columns.size()) {
+            throw new IllegalArgumentException("컬럼 수가 다릅니다: " + row.length + " != " + columns.size());
+        }
+        for (int i = 0; i < row.length; i++) {
+            chunks[i].add(row[i]);
+        }
+        if (++rows == rowGroupSize) {
+            flushRowGroup();
+        }
+    }
+
+    public long getRowCount() {
+        return rowCount + rows;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            flushRowGroup();
+            out.writeInt(0);
+            out.close();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private void flushRowGroup() throws IOException {
+        if (rows == 0) {
+            return;
+        }
+        out.writeInt(rows);
+        for (ColumnChunk chunk : chunks) {
+            byte[] raw = chunk.finish();
+            byte[] compressed = deflate(raw);
+            out.writeInt(raw.length);
+            out.writeInt(compressed.length);
+            out.write(compressed);
+            chunk.reset();
+        }
+        rowCount += rows;
+        rows = 0;
+    }
+
+    private byte[] deflate(byte[] raw) {
+        deflater.reset();
+        deflater.setInput(raw);
+        deflater.finish();
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(Math.max(64, raw.length / 4));
+        byte[] buffer = new byte[8192];
+        while (!deflater.finished()) {
+            compressed.write(buffer, 0, deflater.deflate(buffer));
+        }
+        return compressed.toByteArray();
+    }
+
+    private static final class ColumnChunk {
+
+        private final ColumnType type;
+        private final ByteArrayOutputStream values = new ByteArrayOutputStream();
+        private final Map<String, Integer> dictionary = new LinkedHashMap<>();
+        private byte[] nulls = new byte[64];
+        private int row;
+        private long previous;
+
+        ColumnChunk(ColumnType type) {
+            this.type = type;
+        }
+
+        void add(Object value) {
+            if (value == null) {
+                if (row >> 3 >= nulls.length) {
+                    nulls = Arrays.copyOf(nulls, nulls.length * 2);
+                }
+                nulls[row >> 3] |= (byte) (1 << (row & 7));
+                row++;
+                return;
+            }
+            switch (type) {
+                case LONG -> {
+                    long current = ((Number) value).longValue();
+                    Encoding.writeVarLong(values, Encoding.zigzag(current - previous));
+                    previous = current;
+                }
+                case INT -> Encoding.writeVarLong(values, Encoding.zigzag(((Number) value).intValue()));
+                case STRING -> Encoding.writeString(values, (String) value);
+                case DICTIONARY -> Encoding.writeVarLong(values, dictionary.computeIfAbsent((String) value, v -> dictionary.size()));
+            }
+            row++;
+        }
+
+        byte[] finish() throws IOException {
+            int bitmapLength = (row + 7) / 8;
+            ByteArrayOutputStream chunk = new ByteArrayOutputStream(values.size() + bitmapLength + 16);
+            chunk.writeBytes(Arrays.copyOf(nulls, bitmapLength));
+            if (type == ColumnType.DICTIONARY) {
+                Encoding.writeVarLong(chunk, dictionary.size());
+                dictionary.keySet().forEach(entry -> Encoding.writeString(chunk, entry));
+            }
+            values.writeTo(chunk);
+            return chunk.toByteArray();
+        }
+
+        void reset() {
+            values.reset();
+            dictionary.clear();
+            Arrays.fill(nulls, (byte) 0);
+            row = 0;
+            previous = 0;
+        }
+    }
+}
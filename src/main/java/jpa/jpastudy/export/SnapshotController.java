@@ -0,0 +1,28 @@
+package jpa.jpastudy.export;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+@RestController
+@RequiredArgsConstructor
+public class SnapshotController {
+
+    private static final DateTimeFormatter DIRECTORY_NAME = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    private final SnapshotExporter snapshotExporter;
+
+    @Value("${jpastudy.export.dir:snapshots}")
+    private String baseDirectory;
+
+    @PostMapping("/snapshots")
+    public SnapshotManifest export() throws IOException {
+        return snapshotExporter.export(Path.of(baseDirectory, LocalDateTime.now().format(DIRECTORY_NAME)));
+    }
+}
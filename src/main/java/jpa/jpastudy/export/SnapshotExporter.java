@@ -0,0 +1,157 @@
+package jpa.jpastudy.export;
+
+import jakarta.persistence.EntityManagerFactory;
+import jpa.jpastudy.read.StreamingFetchSize;
+import jpa.jpastudy.scan.IdRange;
+import jpa.jpastudy.scan.PartitionedScanner;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.SessionFactory;
+import org.hibernate.StatelessSession;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Member, Team, Order 를 컬럼 파일 스냅샷으로 내보낸다. 분석 쿼리는 운영 DB 대신 스냅샷을 읽는다.
+ * 테이블마다 id 범위로 나눠 병렬로 읽고, 범위 하나가 파일(part) 하나가 된다.
+ * 범위마다 StatelessSession 의 forward-only 커서로 읽으므로 메모리에는 fetch size 만큼의 행(MySQL 은 한 행, StreamingFetchSize)과 row group 하나만 있다.
+ * 범위마다 트랜잭션이 따로라 테이블 전체가 한 시점 스냅샷은 아니다. 파티션을 나눈 뒤 추가된 행은 빠진다.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SnapshotExporter {
+
+    private static final String PART_SUFFIX = ".jcol";
+
+    private final EntityManagerFactory emf;
+    private final PartitionedScanner scanner;
+    private final StreamingFetchSize streamingFetchSize;
+
+    @Value("${jpastudy.export.parallelism:4}")
+    private int parallelism;
+
+    @Value("${jpastudy.export.fetch-size:1000}")
+    private int fetchSize;
+
+    @Value("${jpastudy.export.row-group-size:65536}")
+    private int rowGroupSize;
+
+    public SnapshotManifest export(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        Instant exportedAt = Instant.now();
+        ExecutorService executor = Executors.newFixedThreadPool(parallelism);
+        try {
+            Map<SnapshotTable, List<CompletableFuture<Long>>> futures = new LinkedHashMap<>();
+            Map<String, List<String>> parts = new LinkedHashMap<>();
+            for (SnapshotTable table : SnapshotTable.values()) {
+                List<IdRange> ranges = scanner.partitions(table.getEntityClass(), parallelism);
+                List<CompletableFuture<Long>> tableFutures = new ArrayList<>();
+                List<String> tableParts = new ArrayList<>();
+                for (int i = 0; i < ranges.size(); i++) {
+                    IdRange range = ranges.get(i);
+                    String part = String.format("%s-%04d%s", table.getFileName(), i, PART_SUFFIX);
+                    tableParts.add(part);
+                    tableFutures.add(CompletableFuture.supplyAsync(() -> exportRange(table, range, directory.resolve(part)), executor));
+                }
+                futures.put(table, tableFutures);
+                parts.put(table.getFileName(), List.copyOf(tableParts));
+            }
+
+            Map<String, Long> rowCounts = new LinkedHashMap<>();
+            futures.forEach((table, tableFutures) -> rowCounts.put(table.getFileName(),
+                    tableFutures.stream().mapToLong(SnapshotExporter::join).sum()));
+
+            SnapshotManifest manifest = new SnapshotManifest(directory.toString(), exportedAt, rowCounts, parts);
+            writeManifest(directory, manifest);
+            log.info("snapshot exported to {}: {}", directory, rowCounts);
+            return manifest;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    long exportRange(SnapshotTable table, IdRange range, Path file) {
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try {
+            long rows = writeRange(table, range, tmp);
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            return rows;
+        } catch (IOException e) {
+            deleteQuietly(tmp);
+            throw new UncheckedIOException(e);
+        } catch (RuntimeException e) {
+            deleteQuietly(tmp);
+            throw e;
+        }
+    }
+
+    private long writeRange(SnapshotTable table, IdRange range, Path file) throws IOException {
+        try (StatelessSession session = emf.unwrap(SessionFactory.class).openStatelessSession();
+             ColumnarWriter writer = new ColumnarWriter(Files.newOutputStream(file), table.getColumns(), rowGroupSize)) {
+            session.beginTransaction();
+            try (ScrollableResults<Object[]> cursor = session.createSelectionQuery(table.getQuery(), Object[].class)
+                    .setParameter("after", range.fromExclusive())
+                    .setParameter("to", range.toInclusive())
+                    .setFetchSize(streamingFetchSize.of(fetchSize))
+                    .setReadOnly(true)
+                    .scroll(ScrollMode.FORWARD_ONLY)) {
+                while (cursor.next()) {
+                    writer.write(table.toRow(cursor.get()));
+                }
+            } finally {
+                // 읽기만 하므로 커밋할 것이 없다.
+                if (session.getTransaction().isActive()) {
+                    session.getTransaction().rollback();
+                }
+            }
+            return writer.getRowCount();
+        }
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException ignored) {
+        }
+    }
+
+    // 모든 part 가 끝난 뒤에 쓰므로 manifest 가 있으면 스냅샷이 완성된 것이다.
+    private static void writeManifest(Path directory, SnapshotManifest manifest) throws IOException {
+        Properties properties = new Properties();
+        properties.setProperty("format", "jcol/" + ColumnarWriter.VERSION);
+        properties.setProperty("exported-at", manifest.exportedAt().toString());
+        manifest.rowCounts().forEach((table, rows) -> properties.setProperty(table + ".rows", String.valueOf(rows)));
+        manifest.parts().forEach((table, files) -> properties.setProperty(table + ".parts", String.join(",", files)));
+        try (Writer writer = Files.newBufferedWriter(directory.resolve("manifest.properties"))) {
+            properties.store(writer, null);
+        }
+    }
+
+    private static long join(CompletableFuture<Long> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package jpa.jpastudy.export;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * parts: 테이블마다 id 범위 순서대로의 파일 이름
+ */
+public record SnapshotManifest(String directory, Instant exportedAt, Map<String, Long> rowCounts,
+                               Map<String, List<String>> parts) {
+}
@@ -0,0 +1,69 @@
+package jpa.jpastudy.export;
+
+import jpa.jpastudy.code.CodedEnum;
+import jpa.jpastudy.jpql.Member;
+import jpa.jpastudy.jpql.Order;
+import jpa.jpastudy.jpql.Team;
+
+import java.util.List;
+
+import static jpa.jpastudy.export.ColumnType.DICTIONARY;
+import static jpa.jpastudy.export.ColumnType.INT;
+import static jpa.jpastudy.export.ColumnType.LONG;
+import static jpa.jpastudy.export.ColumnType.STRING;
+
+/**
+ * 스냅샷 대상 테이블. 엔티티 대신 스칼라 프로젝션으로 읽는다. (연관관계 로딩, 영속성 컨텍스트 없음)
+ */
+public enum SnapshotTable {
+
+    MEMBER(Member.class, "member", "select e.id, e.username, e.age, e.team.id, e.type from Member e",
+            List.of(new Column("id", LONG), new Column("username", STRING), new Column("age", INT),
+                    new Column("team_id", LONG), new Column("type", INT))),
+
+    TEAM(Team.class, "team", "select e.id, e.name, e.age from Team e",
+            List.of(new Column("id", LONG), new Column("name", STRING), new Column("age", INT))),
+
+    ORDER(Order.class, "orders",
+            "select e.id, e.product.id, e.address.city, e.address.street, e.address.zipcode from Order e",
+            List.of(new Column("id", LONG), new Column("product_id", LONG), new Column("city", DICTIONARY),
+                    new Column("street", STRING), new Column("zipcode", DICTIONARY)));
+
+    private final Class<?> entityClass;
+    private final String fileName;
+    private final String query;
+    private final List<Column> columns;
+
+    SnapshotTable(Class<?> entityClass, String fileName, String select, List<Column> columns) {
+        this.entityClass = entityClass;
+        this.fileName = fileName;
+        this.query = select + " where e.id > :after and e.id <= :to order by e.id";
+        this.columns = columns;
+    }
+
+    public Class<?> getEntityClass() {
+        return entityClass;
+    }
+
+    public String getFileName() {
+        return fileName;
+    }
+
+    public String getQuery() {
+        return query;
+    }
+
+    public List<Column> getColumns() {
+        return columns;
+    }
+
+    // enum 값은 DB 와 같은 코드로 내보낸다.
+    Object[] toRow(Object[] selected) {
+        for (int i = 0; i < selected.length; i++) {
+            if (selected[i] instanceof CodedEnum coded) {
+                selected[i] = coded.getCode();
+            }
+        }
+        return selected;
+    }
+}
@@ -0,0 +1,18 @@
+package jpa.jpastudy.hibernate;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+
+public final class HibernateEvents {
+
+    private HibernateEvents() {
+    }
+
+    // 스프링이 만든 EntityManagerFactory에서 Hibernate 이벤트 리스너 레지스트리를 꺼낸다.
+    public static EventListenerRegistry registry(EntityManagerFactory emf) {
+        return emf.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry()
+                .getService(EventListenerRegistry.class);
+    }
+}
@@ -0,0 +1,110 @@
+package jpa.jpastudy.index;
+
+/**
+ * long → long open addressing 맵 (선형 탐사). 박싱 없이 회원 id → 팀 id를 저장한다.
+ * 키 0은 빈 칸 표시로 쓰므로 저장할 수 없다. (@GeneratedValue id는 1부터 시작)
+ * 동기화하지 않으므로 호출하는 쪽에서 락을 잡아야 한다.
+ * 칸 수를 2의 거듭제곱으로 맞추면 최대 2배가 남으므로, 곱셈으로 임의 크기에 매핑하고 부하율 0.8 까지 채운 뒤 1.5배로 늘린다.
+ */
+class LongLongMap {
+
+    static final long NO_VALUE = Long.MIN_VALUE;
+    static final double MAX_LOAD = 0.8;
+    private static final long EMPTY_KEY = 0L;
+
+    private long[] keys;
+    private long[] values;
+    private int size;
+
+    // expectedSize 개를 넣어도 늘어나지 않는 크기로 만든다.
+    LongLongMap(int expectedSize) {
+        int capacity = Math.max(16, (int) Math.ceil((expectedSize + 1) / MAX_LOAD));
+        keys = new long[capacity];
+        values = new long[capacity];
+    }
+
+    int size() {
+        return size;
+    }
+
+    int capacity() {
+        return keys.length;
+    }
+
+    long get(long key) {
+        for (int i = index(key); ; i = next(i)) {
+            if (keys[i] == key) {
+                return values[i];
+            }
+            if (keys[i] == EMPTY_KEY) {
+                return NO_VALUE;
+            }
+        }
+    }
+
+    void put(long key, long value) {
+        if (key == EMPTY_KEY) {
+            throw new IllegalArgumentException("key 0은 저장할 수 없습니다.");
+        }
+        if (size + 1 > keys.length * MAX_LOAD) {
+            resize();
+        }
+        for (int i = index(key); ; i = next(i)) {
+            if (keys[i] == key) {
+                values[i] = value;
+                return;
+            }
+            if (keys[i] == EMPTY_KEY) {
+                keys[i] = key;
+                values[i] = value;
+                size++;
+                return;
+            }
+        }
+    }
+
+    long remove(long key) {
+        int i = index(key);
+        while (keys[i] != key) {
+            if (keys[i] == EMPTY_KEY) {
+                return NO_VALUE;
+            }
+            i = next(i);
+        }
+        long removed = values[i];
+        keys[i] = EMPTY_KEY;
+        size--;
+        // 뒤따르는 클러스터를 다시 넣어 탐사가 끊기지 않게 한다.
+        for (int j = next(i); keys[j] != EMPTY_KEY; j = next(j)) {
+            long k = keys[j];
+            long v = values[j];
+            keys[j] = EMPTY_KEY;
+            size--;
+            put(k, v);
+        }
+        return removed;
+    }
+
+    private void resize() {
+        long[] oldKeys = keys;
+        long[] oldValues = values;
+        keys = new long[oldKeys.length + (oldKeys.length >> 1)];
+        values = new long[keys.length];
+        size = 0;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY_KEY) {
+                put(oldKeys[i], oldValues[i]);
+            }
+        }
+    }
+
+    // 32비트 해시 x 칸 수의 상위 32비트로 [0, 칸 수) 에 고르게 나눈다.
+    private int index(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (((h ^ (h >>> 32)) & 0xFFFFFFFFL) * keys.length >>> 32);
+    }
+
+    private int next(int i) {
+        return i + 1 == keys.length ? 0 : i + 1;
+    }
+}
@@ -0,0 +1,177 @@
+package jpa.jpastudy.index;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 팀별로 (나이 오름차순) int[] ages / long[] ids 를 들고 있는 읽기 전용 인덱스.
+ * "팀 X에서 나이가 N보다 많은 회원" 조회를 이진 탐색 한 번으로 처리한다.
+ * 쓰기는 팀 단위 copy-on-write라 읽기는 락 없이 동작한다.
+ * 회원당 메모리: 배열 12바이트 + id→teamId 맵 20~30바이트(칸 16바이트, 부하율 0.53~0.8) = 32~42바이트. 재적재 직후는 약 32바이트.
+ */
+public class MemberAgeIndex {
+
+    private static final long[] EMPTY = new long[0];
+
+    private volatile Map<Long, TeamSlice> teams = new ConcurrentHashMap<>();
+    private LongLongMap memberTeams = new LongLongMap(1024);
+
+    public long[] membersOlderThan(long teamId, int age) {
+        TeamSlice slice = teams.get(teamId);
+        if (slice == null) {
+            return EMPTY;
+        }
+        int from = slice.upperBound(age);
+        return Arrays.copyOfRange(slice.ids, from, slice.ids.length);
+    }
+
+    public int countOlderThan(long teamId, int age) {
+        TeamSlice slice = teams.get(teamId);
+        return slice == null ? 0 : slice.ids.length - slice.upperBound(age);
+    }
+
+    public synchronized int size() {
+        return memberTeams.size();
+    }
+
+    /**
+     * 회원을 추가하거나 나이/팀 변경을 반영한다. 팀이 없는 회원(teamId null)은 인덱스에서 뺀다.
+     */
+    public synchronized void put(long memberId, Long teamId, int age) {
+        remove(memberId);
+        if (teamId == null) {
+            return;
+        }
+        teams.compute(teamId, (id, slice) -> (slice == null ? TeamSlice.EMPTY : slice).with(memberId, age));
+        memberTeams.put(memberId, teamId);
+    }
+
+    public synchronized void remove(long memberId) {
+        long teamId = memberTeams.remove(memberId);
+        if (teamId == LongLongMap.NO_VALUE) {
+            return;
+        }
+        teams.computeIfPresent(teamId, (id, slice) -> slice.without(memberId));
+    }
+
+    /**
+     * 전체를 다시 채운다. 세 배열은 같은 인덱스끼리 한 회원이다.
+     */
+    public synchronized void reload(long[] memberIds, long[] teamIds, int[] ages) {
+        Map<Long, TeamSlice> rebuilt = new ConcurrentHashMap<>();
+        // 다 넣었을 때 부하율이 0.8 이 되는 크기
+        LongLongMap rebuiltTeams = new LongLongMap(Math.max(1024, memberIds.length));
+        Map<Long, int[]> counts = new HashMap<>();
+        for (long teamId : teamIds) {
+            counts.computeIfAbsent(teamId, id -> new int[1])[0]++;
+        }
+        Map<Long, long[]> idsByTeam = new HashMap<>();
+        Map<Long, int[]> agesByTeam = new HashMap<>();
+        counts.forEach((teamId, count) -> {
+            idsByTeam.put(teamId, new long[count[0]]);
+            agesByTeam.put(teamId, new int[count[0]]);
+            count[0] = 0;
+        });
+        for (int i = 0; i < memberIds.length; i++) {
+            int[] cursor = counts.get(teamIds[i]);
+            idsByTeam.get(teamIds[i])[cursor[0]] = memberIds[i];
+            agesByTeam.get(teamIds[i])[cursor[0]] = ages[i];
+            cursor[0]++;
+            rebuiltTeams.put(memberIds[i], teamIds[i]);
+        }
+        idsByTeam.forEach((teamId, ids) -> rebuilt.put(teamId, TeamSlice.sorted(ids, agesByTeam.get(teamId))));
+        memberTeams = rebuiltTeams;
+        teams = rebuilt;
+    }
+
+    /**
+     * 64비트 JVM, compressed oops 기준으로 인덱스가 차지하는 힙을 배열 길이로 계산한다.
+     * 팀당 TeamSlice(24) + 배열 헤더(16 x 2) + ConcurrentHashMap 노드(32) + Long 키(16) 를 더한다.
+     */
+    synchronized long estimatedBytes() {
+        long bytes = 2 * (16 + 8L * memberTeams.capacity());
+        for (TeamSlice slice : teams.values()) {
+            bytes += 24 + 32 + 16 + align(16 + 4L * slice.ages.length) + 16 + 8L * slice.ids.length;
+        }
+        return bytes;
+    }
+
+    private static long align(long bytes) {
+        return (bytes + 7) & ~7L;
+    }
+
+    static final class TeamSlice {
+        static final TeamSlice EMPTY = new TeamSlice(new int[0], new long[0]);
+
+        final int[] ages;
+        final long[] ids;
+
+        TeamSlice(int[] ages, long[] ids) {
+            this.ages = ages;
+            this.ids = ids;
+        }
+
+        static TeamSlice sorted(long[] ids, int[] ages) {
+            Integer[] order = new Integer[ids.length];
+            for (int i = 0; i < order.length; i++) {
+                order[i] = i;
+            }
+            Arrays.sort(order, (a, b) -> Integer.compare(ages[a], ages[b]));
+            int[] sortedAges = new int[ids.length];
+            long[] sortedIds = new long[ids.length];
+            for (int i = 0; i < order.length; i++) {
+                sortedAges[i] = ages[order[i]];
+                sortedIds[i] = ids[order[i]];
+            }
+            return new TeamSlice(sortedAges, sortedIds);
+        }
+
+        // ages[i] > age 를 만족하는 첫 위치
+        int upperBound(int age) {
+            int lo = 0;
+            int hi = ages.length;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (ages[mid] <= age) {
+                    lo = mid + 1;
+                } else {
+                    hi = mid;
+                }
+            }
+            return lo;
+        }
+
+        TeamSlice with(long memberId, int age) {
+            int at = upperBound(age);
+            int[] newAges = new int[ages.length + 1];
+            long[] newIds = new long[ids.length + 1];
+            System.arraycopy(ages, 0, newAges, 0, at);
+            System.arraycopy(ids, 0, newIds, 0, at);
+            newAges[at] = age;
+            newIds[at] = memberId;
+            System.arraycopy(ages, at, newAges, at + 1, ages.length - at);
+            System.arraycopy(ids, at, newIds, at + 1, ids.length - at);
+            return new TeamSlice(newAges, newIds);
+        }
+
+        TeamSlice without(long memberId) {
+            for (int i = 0; i < ids.length; i++) {
+                if (ids[i] == memberId) {
+                    if (ids.length == 1) {
+                        return null;
+                    }
+                    int[] newAges = new int[ages.length - 1];
+                    long[] newIds = new long[ids.length - 1];
+                    System.arraycopy(ages, 0, newAges, 0, i);
+                    System.arraycopy(ids, 0, newIds, 0, i);
+                    System.arraycopy(ages, i + 1, newAges, i, ages.length - i - 1);
+                    System.arraycopy(ids, i + 1, newIds, i, ids.length - i - 1);
+                    return new TeamSlice(newAges, newIds);
+                }
+            }
+            return this;
+        }
+    }
+}
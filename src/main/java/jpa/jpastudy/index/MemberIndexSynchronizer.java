@@ -0,0 +1,212 @@
+package jpa.jpastudy.index;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jpa.jpastudy.hibernate.HibernateEvents;
+import jpa.jpastudy.jpql.Member;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostCommitDeleteEventListener;
+import org.hibernate.event.spi.PostCommitInsertEventListener;
+import org.hibernate.event.spi.PostCommitUpdateEventListener;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * 커밋된 Member 변경만 MemberAgeIndex에 반영한다. (롤백된 변경은 들어오지 않는다)
+ * 애플리케이션이 뜨면 DB에서 한 번 전체를 읽어 채운다.
+ * 전체를 읽는 동안 커밋된 변경은 모아 두었다가 새 인덱스로 바꾼 뒤 순서대로 다시 적용한다.
+ * 벌크 JPQL(update Member m set ...)은 이벤트가 없어 반영되지 않는다.
+ * 벌크 연산을 하는 트랜잭션 안에서 reloadAfterCommit()을 부르거나, 바뀐 회원을 refresh()한다.
+ */
+@Component
+@RequiredArgsConstructor
+public class MemberIndexSynchronizer implements PostCommitInsertEventListener,
+        PostCommitUpdateEventListener, PostCommitDeleteEventListener, SmartInitializingSingleton {
+
+    private final EntityManagerFactory emf;
+
+    @Getter
+    private final MemberAgeIndex index = new MemberAgeIndex();
+
+    // reload 중일 때만 null 이 아니다. this 로 동기화
+    private List<Consumer<MemberAgeIndex>> changesDuringReload;
+
+    // reload 끼리는 한 번에 하나만
+    private final Object reloadLock = new Object();
+
+    // deferred bootstrap 일 때 다른 빈 생성과 EntityManagerFactory 생성이 겹치도록, 모든 싱글톤이 만들어진 뒤에 등록한다.
+    @Override
+    public void afterSingletonsInstantiated() {
+        EventListenerRegistry registry = HibernateEvents.registry(emf);
+        registry.appendListeners(EventType.POST_COMMIT_INSERT, this);
+        registry.appendListeners(EventType.POST_COMMIT_UPDATE, this);
+        registry.appendListeners(EventType.POST_COMMIT_DELETE, this);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void reload() {
+        synchronized (reloadLock) {
+            reloadFromDatabase();
+        }
+    }
+
+    private void reloadFromDatabase() {
+        beginReload();
+        boolean finished = false;
+        EntityManager em = emf.createEntityManager();
+        try {
+            List<Object[]> rows = em.createQuery(
+                            "select m.id, m.team.id, m.age from Member m where m.team is not null", Object[].class)
+                    .getResultList();
+            long[] memberIds = new long[rows.size()];
+            long[] teamIds = new long[rows.size()];
+            int[] ages = new int[rows.size()];
+            for (int i = 0; i < rows.size(); i++) {
+                Object[] row = rows.get(i);
+                memberIds[i] = (Long) row[0];
+                teamIds[i] = (Long) row[1];
+                ages[i] = (Integer) row[2];
+            }
+            finishReload(memberIds, teamIds, ages);
+            finished = true;
+        } finally {
+            em.close();
+            if (!finished) {
+                abortReload();
+            }
+        }
+    }
+
+    /**
+     * 현재 트랜잭션이 커밋되면 전체를 다시 읽는다. 트랜잭션 밖이면 바로 읽는다.
+     */
+    public void reloadAfterCommit() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            reload();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                reload();
+            }
+        });
+    }
+
+    synchronized void beginReload() {
+        changesDuringReload = new ArrayList<>();
+    }
+
+    synchronized void finishReload(long[] memberIds, long[] teamIds, int[] ages) {
+        index.reload(memberIds, teamIds, ages);
+        changesDuringReload.forEach(change -> change.accept(index));
+        changesDuringReload = null;
+    }
+
+    // 읽기에 실패하면 기존 인덱스에 모아 둔 변경을 반영한다.
+    private synchronized void abortReload() {
+        if (changesDuringReload != null) {
+            changesDuringReload.forEach(change -> change.accept(index));
+            changesDuringReload = null;
+        }
+    }
+
+    synchronized void memberChanged(long memberId, Long teamId, int age) {
+        apply(target -> target.put(memberId, teamId, age));
+    }
+
+    synchronized void memberRemoved(long memberId) {
+        apply(target -> target.remove(memberId));
+    }
+
+    private void apply(Consumer<MemberAgeIndex> change) {
+        if (changesDuringReload != null) {
+            changesDuringReload.add(change);
+        } else {
+            change.accept(index);
+        }
+    }
+
+    /**
+     * 하이버네이트를 거치지 않고 DB 를 직접 바꾼 경우(write-behind 등) 해당 회원만 다시 읽는다.
+     */
+    public void refresh(Collection<Long> memberIds) {
+        EntityManager em = emf.createEntityManager();
+        try {
+            Set<Long> missing = new HashSet<>(memberIds);
+            List<Object[]> rows = em.createQuery(
+                            "select m.id, m.team.id, m.age from Member m where m.id in :ids", Object[].class)
+                    .setParameter("ids", memberIds)
+                    .getResultList();
+            for (Object[] row : rows) {
+                memberChanged((Long) row[0], (Long) row[1], (Integer) row[2]);
+                missing.remove((Long) row[0]);
+            }
+            missing.forEach(this::memberRemoved);
+        } finally {
+            em.close();
+        }
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        if (event.getEntity() instanceof Member member) {
+            put(member);
+        }
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        if (event.getEntity() instanceof Member member) {
+            put(member);
+        }
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        if (event.getEntity() instanceof Member) {
+            memberRemoved((Long) event.getId());
+        }
+    }
+
+    @Override
+    public void onPostInsertCommitFailed(PostInsertEvent event) {
+    }
+
+    @Override
+    public void onPostUpdateCommitFailed(PostUpdateEvent event) {
+    }
+
+    @Override
+    public void onPostDeleteCommitFailed(PostDeleteEvent event) {
+    }
+
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        return Member.class.equals(persister.getMappedClass());
+    }
+
+    // 프록시의 getId()는 초기화를 일으키지 않는다.
+    private void put(Member member) {
+        Long teamId = member.getTeam() == null ? null : member.getTeam().getId();
+        memberChanged(member.getId(), teamId, member.getAge());
+    }
+}
@@ -0,0 +1,40 @@
+package jpa.jpastudy.intern;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Address 조회 시 city / zipcode 문자열을 공유할지 설정한다. (기본 off)
+ * AddressInstantiator는 Hibernate가 직접 생성하므로 설정값은 static으로 넘겨준다.
+ */
+@Component
+public class AddressInterning {
+
+    private static volatile boolean enabled;
+    private static volatile ValuePool<String> pool = new ValuePool<>(0);
+
+    @Value("${jpastudy.interning.enabled:false}")
+    private boolean enabledProperty;
+
+    @Value("${jpastudy.interning.max-size:100000}")
+    private int maxSize;
+
+    @PostConstruct
+    void init() {
+        configure(enabledProperty, maxSize);
+    }
+
+    public static void configure(boolean enabled, int maxSize) {
+        pool = new ValuePool<>(maxSize);
+        AddressInterning.enabled = enabled;
+    }
+
+    public static String intern(String value) {
+        return enabled ? pool.intern(value) : value;
+    }
+
+    public static int pooledCount() {
+        return pool.size();
+    }
+}
@@ -0,0 +1,40 @@
+package jpa.jpastudy.intern;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.util.function.Function;
+
+/**
+ * 크기가 제한된 값 풀. 같은 값이면 풀에 있는 인스턴스를 돌려준다.
+ * 가득 차면 자주 쓰이지 않는 값부터 내보낸다. (Caffeine W-TinyLFU)
+ * 정리 작업을 호출 스레드에서 바로 하므로 maxSize 를 넘는 것은 동시에 넣는 스레드 수만큼의 순간뿐이다.
+ * 키와 값이 같은 인스턴스라 weakValues 로는 회수되지 않으므로 크기 제한만으로 메모리를 묶는다.
+ */
+public class ValuePool<T> {
+
+    private final Cache<T, T> pool;
+
+    public ValuePool(int maxSize) {
+        this.pool = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .executor(Runnable::run)
+                .build();
+    }
+
+    public T intern(T value) {
+        if (value == null) {
+            return null;
+        }
+        return pool.get(value, Function.identity());
+    }
+
+    public int size() {
+        pool.cleanUp();
+        return (int) pool.estimatedSize();
+    }
+
+    public void clear() {
+        pool.invalidateAll();
+    }
+}
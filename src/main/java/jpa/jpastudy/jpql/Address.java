@@ -3,8 +3,10 @@ package jpa.jpastudy.jpql;
 import jakarta.persistence.Embeddable;
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.annotations.EmbeddableInstantiator;
 
 @Embeddable
+@EmbeddableInstantiator(AddressInstantiator.class)
 @Getter @Setter
 public class Address {
     private String city;
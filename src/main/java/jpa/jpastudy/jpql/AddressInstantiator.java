@@ -0,0 +1,33 @@
+package jpa.jpastudy.jpql;
+
+import jpa.jpastudy.intern.AddressInterning;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.metamodel.spi.EmbeddableInstantiator;
+import org.hibernate.metamodel.spi.ValueAccess;
+
+/**
+ * 조회 결과로 Address를 만들 때 city, zipcode를 풀에서 공유한다.
+ * Address는 변경 가능한 값 타입이라 인스턴스 자체는 공유하지 않고, 불변인 String만 공유한다.
+ */
+public class AddressInstantiator implements EmbeddableInstantiator {
+
+    // ValueAccess 값은 속성 이름 순서(city, street, zipcode)로 들어온다.
+    @Override
+    public Object instantiate(ValueAccess valueAccess, SessionFactoryImplementor sessionFactory) {
+        Address address = new Address();
+        address.setCity(AddressInterning.intern(valueAccess.getValue(0, String.class)));
+        address.setStreet(valueAccess.getValue(1, String.class));
+        address.setZipcode(AddressInterning.intern(valueAccess.getValue(2, String.class)));
+        return address;
+    }
+
+    @Override
+    public boolean isInstance(Object object, SessionFactoryImplementor sessionFactory) {
+        return object instanceof Address;
+    }
+
+    @Override
+    public boolean isSameClass(Object object, SessionFactoryImplementor sessionFactory) {
+        return object.getClass().equals(Address.class);
+    }
+}
@@ -7,7 +7,7 @@ import lombok.Setter;
 
 @Entity
 @Getter @Setter
-@DiscriminatorValue("BB")
+@DiscriminatorValue(ItemTypes.BOOK)
 public class Book extends Item {
     private String author;
     private String isbn;
@@ -7,7 +7,7 @@ import lombok.Setter;
 @Entity
 @Getter @Setter
 @Inheritance(strategy = InheritanceType.SINGLE_TABLE)
-@DiscriminatorColumn
+@DiscriminatorColumn(discriminatorType = DiscriminatorType.INTEGER)
 public abstract class Item {
 
     @Id @GeneratedValue
@@ -17,4 +17,7 @@ public abstract class Item {
     private String name;
     private int price;
     private int stockQuantity;
+
+    @Version
+    private long version;
 }
\ No newline at end of file
@@ -0,0 +1,30 @@
+package jpa.jpastudy.jpql;
+
+import jpa.jpastudy.code.CodedEnum;
+
+/**
+ * Item 하위 타입과 DTYPE 코드. MemberType 과 같은 CodeRegistry 규칙(중복 금지, 퇴역 코드 재사용 금지)을 따른다.
+ * 하위 타입을 삭제하면 상수를 지우고 코드를 @RetiredCodes 에 남긴다.
+ * @DiscriminatorValue 에는 상수식이 필요해서 ItemTypes 에 같은 값을 문자열로 두고, 기동 시 ItemTypeCheck 가 둘을 맞춰 본다.
+ */
+public enum ItemType implements CodedEnum {
+    // 기존 문자열 값 "BB"
+    BOOK(1, Book.class);
+
+    private final int code;
+    private final Class<? extends Item> entityClass;
+
+    ItemType(int code, Class<? extends Item> entityClass) {
+        this.code = code;
+        this.entityClass = entityClass;
+    }
+
+    @Override
+    public int getCode() {
+        return code;
+    }
+
+    public Class<? extends Item> getEntityClass() {
+        return entityClass;
+    }
+}
@@ -0,0 +1,64 @@
+package jpa.jpastudy.jpql;
+
+import jakarta.persistence.DiscriminatorValue;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.metamodel.EntityType;
+import jakarta.persistence.metamodel.Metamodel;
+import jpa.jpastudy.code.CodeRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Modifier;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 기동 시 Item 하위 엔티티마다 @DiscriminatorValue 가 ItemType 에 등록된 자기 코드인지 확인한다.
+ * 코드 중복 / 범위 / 퇴역 코드 재사용은 CodeRegistry 가 검사한다.
+ */
+@Component
+@RequiredArgsConstructor
+public class ItemTypeCheck implements SmartInitializingSingleton {
+
+    private final EntityManagerFactory emf;
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        verify(emf.getMetamodel());
+    }
+
+    static void verify(Metamodel metamodel) {
+        Map<Integer, ItemType> byCode = CodeRegistry.register(ItemType.class);
+        Map<Class<?>, ItemType> mapped = new HashMap<>();
+        for (EntityType<?> entity : metamodel.getEntities()) {
+            Class<?> javaType = entity.getJavaType();
+            if (!Item.class.isAssignableFrom(javaType) || Modifier.isAbstract(javaType.getModifiers())) {
+                continue;
+            }
+            DiscriminatorValue value = javaType.getAnnotation(DiscriminatorValue.class);
+            if (value == null) {
+                throw new IllegalStateException(javaType.getSimpleName() + " 에 @DiscriminatorValue 가 없습니다.");
+            }
+            ItemType type = byCode.get(parse(javaType, value.value()));
+            if (type == null || type.getEntityClass() != javaType) {
+                throw new IllegalStateException(javaType.getSimpleName() + " 의 DTYPE " + value.value()
+                        + " 가 ItemType 에 등록된 코드와 다릅니다: " + type);
+            }
+            mapped.put(javaType, type);
+        }
+        for (ItemType type : ItemType.values()) {
+            if (mapped.get(type.getEntityClass()) != type) {
+                throw new IllegalStateException("ItemType." + type + " 의 엔티티 " + type.getEntityClass().getSimpleName() + " 가 매핑되지 않았습니다.");
+            }
+        }
+    }
+
+    private static int parse(Class<?> javaType, String value) {
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalStateException(javaType.getSimpleName() + " 의 DTYPE 은 숫자 코드여야 합니다: " + value, e);
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package jpa.jpastudy.jpql;
+
+/**
+ * Item 의 DTYPE 코드. @DiscriminatorValue 에 그대로 쓴다.
+ * 코드는 ItemType 에 등록하고 여기에는 같은 값을 문자열로 둔다. 맞지 않으면 ItemTypeCheck 가 기동을 실패시킨다.
+ */
+public final class ItemTypes {
+
+    public static final String BOOK = "1";
+
+    private ItemTypes() {
+    }
+}
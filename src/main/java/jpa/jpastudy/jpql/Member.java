@@ -3,9 +3,12 @@ package jpa.jpastudy.jpql;
 import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.annotations.DynamicUpdate;
 
 @Entity
 @Getter @Setter
+// age 는 WriteBehindBuffer 가 JDBC 로 직접 갱신하므로, 바뀐 컬럼만 update 해서 옛 age 를 덮어쓰지 않게 한다.
+@DynamicUpdate
 @NamedQuery(
         name = "Member.findByUsername",
         query = "select m from Member m where m.username = :username"
@@ -21,7 +24,7 @@ public class Member {
     @JoinColumn(name = "TEAM_ID")
     private Team team;
 
-    @Enumerated(EnumType.STRING)
+    @Convert(converter = MemberTypeConverter.class)
     private MemberType type;
 
     @Override
@@ -1,5 +1,18 @@
 package jpa.jpastudy.jpql;
 
-public enum MemberType {
-    ADMIN, USER
+import jpa.jpastudy.code.CodedEnum;
+
+public enum MemberType implements CodedEnum {
+    ADMIN(1), USER(2);
+
+    private final int code;
+
+    MemberType(int code) {
+        this.code = code;
+    }
+
+    @Override
+    public int getCode() {
+        return code;
+    }
 }
@@ -0,0 +1,12 @@
+package jpa.jpastudy.jpql;
+
+import jakarta.persistence.Converter;
+import jpa.jpastudy.code.CodedEnumConverter;
+
+@Converter
+public class MemberTypeConverter extends CodedEnumConverter<MemberType> {
+
+    public MemberTypeConverter() {
+        super(MemberType.class);
+    }
+}
@@ -3,6 +3,7 @@ package jpa.jpastudy.jpql;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.Id;
+import jakarta.persistence.Version;
 import lombok.Getter;
 import lombok.Setter;
 
@@ -15,4 +16,7 @@ public class Product {
     private String name;
     private int price;
     private int stockAmount;
+
+    @Version
+    private long version;
 }
@@ -7,12 +7,15 @@ import jakarta.persistence.OneToMany;
 import lombok.Getter;
 import lombok.Setter;
 import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.DynamicUpdate;
 
 import java.util.ArrayList;
 import java.util.List;
 
 @Entity
 @Getter @Setter
+// age 는 WriteBehindBuffer 가 JDBC 로 직접 갱신하므로, 바뀐 컬럼만 update 해서 옛 age 를 덮어쓰지 않게 한다.
+@DynamicUpdate
 public class Team {
     @Id
     @GeneratedValue
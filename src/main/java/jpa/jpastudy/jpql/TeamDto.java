@@ -0,0 +1,13 @@
+package jpa.jpastudy.jpql;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter @Setter
+@AllArgsConstructor
+public class TeamDto {
+    private Long id;
+    private String name;
+    private long memberCount;
+}
@@ -0,0 +1,50 @@
+package jpa.jpastudy.order;
+
+import jpa.jpastudy.jpql.Address;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+
+@RestController
+@RequiredArgsConstructor
+public class OrderController {
+
+    private final OrderPlacementService orderPlacementService;
+
+    @PostMapping("/products/{productId}/orders")
+    public CompletableFuture<Long> placeOrder(@PathVariable Long productId, @RequestBody Address address) {
+        return orderPlacementService.place(productId, address);
+    }
+
+    @GetMapping("/orders/metrics")
+    public OrderPipelineMetrics.Snapshot metrics() {
+        return orderPlacementService.metrics();
+    }
+
+    @GetMapping("/orders/settlement-failures")
+    public List<OrderPlacementService.FailedSettlement> settlementFailures() {
+        return orderPlacementService.failedSettlements();
+    }
+
+    @PostMapping("/orders/settlement-failures/retry")
+    public List<OrderPlacementService.FailedSettlement> retrySettlementFailures() {
+        orderPlacementService.retryFailedSettlements();
+        return orderPlacementService.failedSettlements();
+    }
+
+    @ExceptionHandler(RejectedExecutionException.class)
+    @ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+    public String queueFull(RejectedExecutionException e) {
+        return e.getMessage();
+    }
+}
@@ -0,0 +1,79 @@
+package jpa.jpastudy.order;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+@Component
+public class OrderPipelineMetrics {
+
+    private final long startedAt = System.nanoTime();
+
+    private final LongAdder accepted = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder committed = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder commitNanos = new LongAdder();
+    private final AtomicLong maxCommitNanos = new AtomicLong();
+    private final LongAdder settlementFailures = new LongAdder();
+
+    void accepted() {
+        accepted.increment();
+    }
+
+    void rejected() {
+        rejected.increment();
+    }
+
+    void batchCommitted(int size, long elapsedNanos) {
+        committed.add(size);
+        batches.increment();
+        commitNanos.add(elapsedNanos);
+        maxCommitNanos.accumulateAndGet(elapsedNanos, Math::max);
+    }
+
+    void batchFailed(int size) {
+        failed.add(size);
+    }
+
+    void settlementFailed() {
+        settlementFailures.increment();
+    }
+
+    public Snapshot snapshot(int queueSize) {
+        long batchCount = batches.sum();
+        long committedCount = committed.sum();
+        double elapsedSeconds = (System.nanoTime() - startedAt) / 1_000_000_000.0;
+        return new Snapshot(
+                accepted.sum(),
+                rejected.sum(),
+                committedCount,
+                failed.sum(),
+                batchCount,
+                queueSize,
+                committedCount / Math.max(elapsedSeconds, 1e-9),
+                batchCount == 0 ? 0 : TimeUnit.NANOSECONDS.toMicros(commitNanos.sum() / batchCount),
+                TimeUnit.NANOSECONDS.toMicros(maxCommitNanos.get()),
+                settlementFailures.sum());
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class Snapshot {
+        private long accepted;
+        private long rejected;
+        private long committed;
+        private long failed;
+        private long batches;
+        private int queueSize;
+        private double ordersPerSecond;
+        private long avgCommitMicros;
+        private long maxCommitMicros;
+        private long settlementFailures;
+    }
+}
@@ -0,0 +1,318 @@
+package jpa.jpastudy.order;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jpa.jpastudy.jpql.Address;
+import jpa.jpastudy.jpql.Order;
+import jpa.jpastudy.jpql.Product;
+import jpa.jpastudy.stock.StockService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 주문을 큐에 받아 N건씩 하나의 트랜잭션으로 묶어 저장한다. (group commit)
+ * 배치가 실패하면 한 건씩 다시 저장해서 문제 있는 주문만 실패시킨다.
+ * 재고 차감은 커밋 이후 상품별로 합산해 별도 스레드에서 비동기로 반영한다.
+ * 정산 큐가 가득 차거나 종료 중이면 커밋 스레드가 직접 정산하므로 접수 큐까지 밀림이 전달되고, 커밋된 주문의 정산은 버려지지 않는다.
+ * 재시도 후에도 반영하지 못한 정산은 failed_settlement 테이블에 남겨 두고 대사(reconcile)한다.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class OrderPlacementService {
+
+    @PersistenceContext
+    EntityManager em;
+
+    private final TransactionTemplate transactionTemplate;
+    private final JdbcTemplate jdbcTemplate;
+    private final StockService stockService;
+    private final OrderPipelineMetrics metrics;
+
+    @Value("${jpastudy.order.queue-capacity:10000}")
+    private int queueCapacity;
+
+    @Value("${jpastudy.order.batch-size:100}")
+    private int batchSize;
+
+    @Value("${jpastudy.order.offer-timeout-ms:50}")
+    private long offerTimeoutMillis;
+
+    @Value("${jpastudy.order.settle-queue-capacity:1000}")
+    private int settleQueueCapacity;
+
+    @Value("${jpastudy.order.settle-max-attempts:3}")
+    private int settleMaxAttempts;
+
+    private BlockingQueue<PendingOrder> queue;
+    private ExecutorService committer;
+    private ExecutorService settler;
+    private volatile boolean running;
+
+    @PostConstruct
+    void start() {
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        committer = Executors.newSingleThreadExecutor(r -> new Thread(r, "order-committer"));
+        settler = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(settleQueueCapacity),
+                r -> new Thread(r, "order-settler"), (task, executor) -> task.run());
+        running = true;
+        committer.submit(this::commitLoop);
+    }
+
+    // 받은 주문은 모두 커밋하고 정산까지 마친 뒤에 끝낸다. 시간 제한을 두면 커밋된 주문의 정산이 유실된다.
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        committer.shutdown();
+        while (!committer.awaitTermination(10, TimeUnit.SECONDS)) {
+            log.info("주문 커밋 종료 대기 중 queueSize={}", queue.size());
+        }
+        settler.shutdown();
+        while (!settler.awaitTermination(10, TimeUnit.SECONDS)) {
+            log.info("재고 정산 종료 대기 중");
+        }
+    }
+
+    /**
+     * 큐가 가득 차 있으면 offer-timeout 동안 기다리고, 그래도 자리가 없으면 RejectedExecutionException을 던진다.
+     * 반환된 future는 주문이 커밋되면 주문 id로 완료된다.
+     */
+    public CompletableFuture<Long> place(Long productId, Address address) {
+        PendingOrder pending = new PendingOrder(productId, address, new CompletableFuture<>());
+        boolean offered;
+        try {
+            offered = running && queue.offer(pending, offerTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            offered = false;
+        }
+        if (!offered) {
+            metrics.rejected();
+            throw new RejectedExecutionException("주문 큐가 가득 찼습니다. capacity=" + queueCapacity);
+        }
+        metrics.accepted();
+        return pending.result();
+    }
+
+    public OrderPipelineMetrics.Snapshot metrics() {
+        return metrics.snapshot(queue.size());
+    }
+
+    // 상품과 사유가 같은 주문끼리 묶어서 보여 준다.
+    public List<FailedSettlement> failedSettlements() {
+        List<FailedSettlement> result = new ArrayList<>();
+        jdbcTemplate.query("select order_id, product_id, reason from failed_settlement order by product_id, reason, order_id", rs -> {
+            long productId = rs.getLong("product_id");
+            String reason = rs.getString("reason");
+            FailedSettlement last = result.isEmpty() ? null : result.get(result.size() - 1);
+            if (last == null || last.productId() != productId || !last.reason().equals(reason)) {
+                last = new FailedSettlement(productId, new ArrayList<>(), reason);
+                result.add(last);
+            }
+            last.orderIds().add(rs.getLong("order_id"));
+        });
+        return result.stream().map(f -> new FailedSettlement(f.productId(), List.copyOf(f.orderIds()), f.reason())).toList();
+    }
+
+    /**
+     * 남아 있는 실패 정산을 다시 시도한다. 또 실패한 건은 사유만 바뀌어 테이블에 남는다.
+     */
+    public void retryFailedSettlements() {
+        for (FailedSettlement failed : failedSettlements()) {
+            retry(failed);
+        }
+    }
+
+    // 행 삭제와 재고 차감을 한 트랜잭션으로 묶는다. 다른 곳에서 먼저 지웠으면(동시 재시도) 차감하지 않는다.
+    private void retry(FailedSettlement failed) {
+        String reason;
+        try {
+            reason = transactionTemplate.execute(status -> {
+                int deleted = jdbcTemplate.update("delete from failed_settlement where order_id in ("
+                        + String.join(", ", Collections.nCopies(failed.orderIds().size(), "?")) + ")", failed.orderIds().toArray());
+                if (deleted != failed.orderIds().size()
+                        || !stockService.decreaseProduct(failed.productId(), failed.orderIds().size())) {
+                    status.setRollbackOnly();
+                    return deleted == failed.orderIds().size() ? "재고 부족" : null;
+                }
+                return null;
+            });
+        } catch (RuntimeException e) {
+            log.warn("재고 정산 재시도 실패 productId={}", failed.productId(), e);
+            reason = e.toString();
+        }
+        if (reason != null) {
+            String updated = truncate(reason);
+            jdbcTemplate.batchUpdate("update failed_settlement set reason = ? where order_id = ?",
+                    failed.orderIds(), failed.orderIds().size(), (ps, orderId) -> {
+                        ps.setString(1, updated);
+                        ps.setLong(2, orderId);
+                    });
+        }
+    }
+
+    private void commitLoop() {
+        List<PendingOrder> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingOrder first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                commit(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void commit(List<PendingOrder> batch) {
+        long start = System.nanoTime();
+        List<Long> ids;
+        try {
+            ids = insert(batch);
+        } catch (RuntimeException e) {
+            log.warn("주문 배치 커밋 실패, 한 건씩 다시 저장 size={}", batch.size(), e);
+            commitOneByOne(batch);
+            return;
+        }
+        metrics.batchCommitted(batch.size(), System.nanoTime() - start);
+        for (int i = 0; i < batch.size(); i++) {
+            batch.get(i).result().complete(ids.get(i));
+        }
+        settleAsync(batch, ids);
+    }
+
+    private void commitOneByOne(List<PendingOrder> batch) {
+        List<PendingOrder> committed = new ArrayList<>(batch.size());
+        List<Long> ids = new ArrayList<>(batch.size());
+        for (PendingOrder pending : batch) {
+            long start = System.nanoTime();
+            try {
+                Long id = insert(List.of(pending)).get(0);
+                metrics.batchCommitted(1, System.nanoTime() - start);
+                committed.add(pending);
+                ids.add(id);
+                pending.result().complete(id);
+            } catch (RuntimeException e) {
+                log.warn("주문 저장 실패 productId={}", pending.productId(), e);
+                metrics.batchFailed(1);
+                pending.result().completeExceptionally(e);
+            }
+        }
+        if (!committed.isEmpty()) {
+            settleAsync(committed, ids);
+        }
+    }
+
+    private List<Long> insert(List<PendingOrder> batch) {
+        return transactionTemplate.execute(status -> {
+            List<Order> orders = new ArrayList<>(batch.size());
+            for (PendingOrder pending : batch) {
+                Order order = new Order();
+                order.setAddress(pending.address());
+                order.setProduct(em.getReference(Product.class, pending.productId()));
+                em.persist(order);
+                orders.add(order);
+            }
+            // hibernate.jdbc.batch_size 단위로 insert가 묶여서 나간다.
+            em.flush();
+            em.clear();
+            return orders.stream().map(Order::getId).toList();
+        });
+    }
+
+    private void settleAsync(List<PendingOrder> batch, List<Long> ids) {
+        Map<Long, List<Long>> orderIdsByProduct = new LinkedHashMap<>();
+        for (int i = 0; i < batch.size(); i++) {
+            orderIdsByProduct.computeIfAbsent(batch.get(i).productId(), k -> new ArrayList<>()).add(ids.get(i));
+        }
+        settler.execute(() -> orderIdsByProduct.forEach(this::settle));
+    }
+
+    // 일시적인 오류는 재시도하고, 재고 부족이나 재시도 초과는 대사용으로 남긴다.
+    private void settle(Long productId, List<Long> orderIds) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                if (!stockService.decreaseProduct(productId, orderIds.size())) {
+                    recordFailedSettlement(productId, orderIds, "재고 부족");
+                }
+                return;
+            } catch (RuntimeException e) {
+                if (attempt >= settleMaxAttempts) {
+                    log.warn("재고 정산 실패 productId={}", productId, e);
+                    recordFailedSettlement(productId, orderIds, e.toString());
+                    return;
+                }
+                sleepBeforeRetry(attempt);
+            }
+        }
+    }
+
+    private void recordFailedSettlement(Long productId, List<Long> orderIds, String reason) {
+        log.warn("정산 실패 productId={}, quantity={}, reason={}", productId, orderIds.size(), reason);
+        metrics.settlementFailed();
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        try {
+            transactionTemplate.executeWithoutResult(status ->
+                    jdbcTemplate.batchUpdate("insert into failed_settlement (order_id, product_id, reason, created_at) values (?, ?, ?, ?)",
+                            orderIds, orderIds.size(), (ps, orderId) -> {
+                                ps.setLong(1, orderId);
+                                ps.setLong(2, productId);
+                                ps.setString(3, truncate(reason));
+                                ps.setTimestamp(4, now);
+                            }));
+        } catch (RuntimeException e) {
+            // 테이블에도 남기지 못하면 로그가 유일한 기록이므로 주문 id 를 모두 남긴다.
+            log.error("정산 실패 기록 실패 productId={}, orderIds={}", productId, orderIds, e);
+        }
+    }
+
+    private static String truncate(String reason) {
+        return reason.length() > 1000 ? reason.substring(0, 1000) : reason;
+    }
+
+    private static void sleepBeforeRetry(int attempt) {
+        try {
+            Thread.sleep(10L << Math.min(attempt, 6));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * 주문은 커밋됐지만 재고에 반영되지 않은 정산. orderIds 만큼 재고를 맞추거나 주문을 취소해야 한다.
+     */
+    public record FailedSettlement(Long productId, List<Long> orderIds, String reason) {
+    }
+
+    private record PendingOrder(Long productId, Address address, CompletableFuture<Long> result) {
+    }
+}
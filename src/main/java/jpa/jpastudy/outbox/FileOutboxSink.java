@@ -0,0 +1,33 @@
+package jpa.jpastudy.outbox;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+// 한 줄에 하나씩 탭으로 구분해 파일 끝에 덧붙인다.
+public class FileOutboxSink implements OutboxSink {
+
+    private final Path path;
+
+    public FileOutboxSink(Path path) {
+        this.path = path;
+    }
+
+    @Override
+    public synchronized void publish(List<OutboxMessage> messages) {
+        try (Writer writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+            for (OutboxMessage m : messages) {
+                writer.write(m.id() + "\t" + m.aggregateType() + "\t" + m.aggregateId() + "\t"
+                        + m.changeType() + "\t" + m.createdAt() + "\t" + m.payload() + "\n");
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
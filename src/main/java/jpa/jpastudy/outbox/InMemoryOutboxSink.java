@@ -0,0 +1,25 @@
+package jpa.jpastudy.outbox;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 테스트용. 전달된 메시지를 지우지 않고 계속 들고 있으므로 운영에서 쓰면 메모리가 끝없이 늘고 재시작 시 사라진다.
+ */
+public class InMemoryOutboxSink implements OutboxSink {
+
+    private final List<OutboxMessage> messages = new ArrayList<>();
+
+    @Override
+    public synchronized void publish(List<OutboxMessage> batch) {
+        messages.addAll(batch);
+    }
+
+    public synchronized List<OutboxMessage> getMessages() {
+        return List.copyOf(messages);
+    }
+
+    public synchronized void clear() {
+        messages.clear();
+    }
+}
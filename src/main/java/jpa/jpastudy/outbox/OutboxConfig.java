@@ -0,0 +1,26 @@
+package jpa.jpastudy.outbox;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+import java.nio.file.Path;
+
+@Configuration
+@EnableScheduling
+public class OutboxConfig {
+
+    @Bean
+    @ConditionalOnMissingBean
+    public OutboxSink outboxSink(@Value("${jpastudy.outbox.sink}") String sink,
+                                 @Value("${jpastudy.outbox.file:outbox.log}") String file) {
+        // 기본값을 두지 않는다. 잘못 쓰면 이벤트를 잃는 설정이라 명시적으로 고르게 한다.
+        return switch (sink) {
+            case "file" -> new FileOutboxSink(Path.of(file));
+            case "memory" -> new InMemoryOutboxSink();
+            default -> throw new IllegalStateException("jpastudy.outbox.sink 는 file 또는 memory 여야 합니다: " + sink);
+        };
+    }
+}
@@ -0,0 +1,12 @@
+package jpa.jpastudy.outbox;
+
+import java.time.LocalDateTime;
+
+public record OutboxMessage(long id, String aggregateType, Long aggregateId, String changeType,
+                            String payload, LocalDateTime createdAt) {
+
+    static OutboxMessage of(OutboxRecord record) {
+        return new OutboxMessage(record.getId(), record.getAggregateType(), record.getAggregateId(),
+                record.getChangeType(), record.getPayload(), record.getCreatedAt());
+    }
+}
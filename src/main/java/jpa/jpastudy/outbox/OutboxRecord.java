@@ -0,0 +1,24 @@
+package jpa.jpastudy.outbox;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+// 행은 OutboxWriter가 JDBC로 직접 넣고, 엔티티는 릴레이가 읽고 지울 때만 쓴다.
+@Entity
+@Table(name = "OUTBOX")
+@Getter @Setter
+public class OutboxRecord {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    private String aggregateType;
+    private Long aggregateId;
+    private String changeType;
+    @Column(length = 1000)
+    private String payload;
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,93 @@
+package jpa.jpastudy.outbox;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.PersistenceContext;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.LockOptions;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * OUTBOX 를 id 순으로 batch-size 만큼 읽어 sink 에 넘기고, 넘긴 행은 같은 트랜잭션에서 지운다.
+ * 같은 aggregate 에 대한 변경은 행 락으로 직렬화되어 커밋 순서대로 id 를 받으므로, id 순으로 읽으면 aggregate 별 순서가 지켜진다.
+ * 여러 인스턴스가 동시에 돌 수 있으므로, 배치마다 리더 행(outbox_relay_lock)을 SKIP LOCKED 로 잠근 인스턴스만 전달한다.
+ * 행 단위로 나눠 가지면 같은 aggregate 의 변경이 다른 인스턴스에서 순서가 뒤바뀌어 나갈 수 있어 리더 행 하나로 직렬화한다.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class OutboxRelay {
+
+    @PersistenceContext
+    EntityManager em;
+
+    private final TransactionTemplate transactionTemplate;
+    private final OutboxSink sink;
+
+    @Value("${jpastudy.outbox.batch-size:500}")
+    private int batchSize;
+
+    private volatile Duration lastLag = Duration.ZERO;
+
+    @Scheduled(fixedDelayString = "${jpastudy.outbox.poll-interval-ms:500}")
+    public synchronized void poll() {
+        int relayed;
+        do {
+            relayed = relayBatch();
+        } while (relayed == batchSize);
+    }
+
+    /**
+     * 한 배치를 전달하고 전달한 건수를 반환한다. 다른 인스턴스가 전달 중이면 기다리지 않고 0 을 반환한다.
+     */
+    public synchronized int relayBatch() {
+        Integer relayed = transactionTemplate.execute(status -> {
+            if (em.find(OutboxRelayLock.class, OutboxRelayLock.ID, LockModeType.PESSIMISTIC_WRITE,
+                    Map.of("jakarta.persistence.lock.timeout", LockOptions.SKIP_LOCKED)) == null) {
+                return 0;
+            }
+            List<OutboxRecord> records = em.createQuery("select r from OutboxRecord r order by r.id", OutboxRecord.class)
+                    .setMaxResults(batchSize)
+                    .getResultList();
+            if (records.isEmpty()) {
+                lastLag = Duration.ZERO;
+                return 0;
+            }
+            sink.publish(records.stream().map(OutboxMessage::of).toList());
+            em.createQuery("delete from OutboxRecord r where r.id in :ids")
+                    .setParameter("ids", records.stream().map(OutboxRecord::getId).toList())
+                    .executeUpdate();
+            lastLag = Duration.between(records.get(0).getCreatedAt(), LocalDateTime.now());
+            return records.size();
+        });
+        if (relayed > 0) {
+            log.debug("outbox relayed={}, lag={}", relayed, lastLag);
+        }
+        return relayed;
+    }
+
+    // 마지막으로 전달한 배치에서 가장 오래된 레코드가 기다린 시간
+    public Duration lastLag() {
+        return lastLag;
+    }
+
+    // 아직 전달되지 않은 가장 오래된 레코드의 대기 시간
+    public Duration currentLag() {
+        LocalDateTime oldest = em.createQuery("select min(r.createdAt) from OutboxRecord r", LocalDateTime.class)
+                .getSingleResult();
+        return oldest == null ? Duration.ZERO : Duration.between(oldest, LocalDateTime.now());
+    }
+
+    public long pendingCount() {
+        return em.createQuery("select count(r) from OutboxRecord r", Long.class).getSingleResult();
+    }
+}
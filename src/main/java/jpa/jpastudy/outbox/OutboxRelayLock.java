@@ -0,0 +1,17 @@
+package jpa.jpastudy.outbox;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Getter;
+
+// 릴레이 리더 행. 읽기만 하고 잠그는 데만 쓴다.
+@Entity
+@Table(name = "outbox_relay_lock")
+@Getter
+public class OutboxRelayLock {
+    public static final int ID = 1;
+
+    @Id
+    private Integer id;
+}
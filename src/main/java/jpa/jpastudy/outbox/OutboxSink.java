@@ -0,0 +1,12 @@
+package jpa.jpastudy.outbox;
+
+import java.util.List;
+
+/**
+ * 릴레이가 outbox 레코드를 넘기는 대상. messages는 id(=커밋 순서) 오름차순이다.
+ * 예외를 던지면 해당 배치는 지워지지 않고 다음 폴링에서 다시 전달된다.
+ */
+public interface OutboxSink {
+
+    void publish(List<OutboxMessage> messages);
+}
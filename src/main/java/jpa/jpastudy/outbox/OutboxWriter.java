@@ -0,0 +1,160 @@
+package jpa.jpastudy.outbox;
+
+import jakarta.persistence.EntityManagerFactory;
+import jpa.jpastudy.hibernate.HibernateEvents;
+import jpa.jpastudy.jpql.Member;
+import jpa.jpastudy.jpql.MemberType;
+import jpa.jpastudy.jpql.Order;
+import jpa.jpastudy.jpql.Team;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventSource;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostDeleteEventListener;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Member, Team, Order 의 insert/update/delete 를 모아 두었다가 커밋 직전에 같은 트랜잭션으로 OUTBOX 에 한 번에 넣는다.
+ * 롤백되면 OUTBOX 행도 같이 롤백된다.
+ * JPQL / 네이티브 벌크 연산(update Member m set ...)은 엔티티 이벤트가 없어 기록되지 않는다.
+ * 벌크 연산으로 바꾼 행을 전파해야 하면 그 트랜잭션에서 OUTBOX 행을 직접 넣거나 엔티티 단위로 변경해야 한다.
+ */
+@Component
+@RequiredArgsConstructor
+public class OutboxWriter implements PostInsertEventListener, PostUpdateEventListener, PostDeleteEventListener,
+        SmartInitializingSingleton {
+
+    private static final String INSERT_SQL =
+            "insert into outbox (aggregate_type, aggregate_id, change_type, payload, created_at) values (?, ?, ?, ?, ?)";
+
+    private final EntityManagerFactory emf;
+
+    private final Map<SharedSessionContractImplementor, List<Change>> pending = new ConcurrentHashMap<>();
+
+    // EntityManagerFactory 준비를 기다리는 시점을 최대한 늦춘다. (deferred bootstrap)
+    @Override
+    public void afterSingletonsInstantiated() {
+        EventListenerRegistry registry = HibernateEvents.registry(emf);
+        registry.appendListeners(EventType.POST_INSERT, this);
+        registry.appendListeners(EventType.POST_UPDATE, this);
+        registry.appendListeners(EventType.POST_DELETE, this);
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        record(event.getSession(), event.getEntity(), (Long) event.getId(), "INSERT");
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        record(event.getSession(), event.getEntity(), (Long) event.getId(), "UPDATE");
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        record(event.getSession(), event.getEntity(), (Long) event.getId(), "DELETE");
+    }
+
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        return false;
+    }
+
+    private void record(EventSource session, Object entity, Long id, String changeType) {
+        String payload = "DELETE".equals(changeType) ? "" : payload(entity);
+        if (payload == null) {
+            return;
+        }
+        Change change = new Change(entity.getClass().getSimpleName(), id, changeType, payload, LocalDateTime.now());
+        List<Change> changes = pending.get(session);
+        if (changes == null) {
+            changes = new ArrayList<>();
+            pending.put(session, changes);
+            session.getActionQueue().registerProcess(this::write);
+            session.getActionQueue().registerProcess((success, s) -> pending.remove(s));
+        }
+        changes.add(change);
+    }
+
+    // 커밋 직전(flush 이후)에 실행된다.
+    private void write(SessionImplementor session) {
+        List<Change> changes = pending.remove(session);
+        if (changes == null || changes.isEmpty()) {
+            return;
+        }
+        session.doWork(connection -> {
+            try (PreparedStatement ps = connection.prepareStatement(INSERT_SQL)) {
+                for (Change c : changes) {
+                    bind(ps, c);
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+            }
+        });
+    }
+
+    /**
+     * 엔티티 이벤트를 거치지 않는 JDBC 쓰기(write-behind)가 자기 트랜잭션 안에서 OUTBOX 행을 넣을 때 쓴다.
+     */
+    public static void insert(JdbcTemplate jdbcTemplate, List<Change> changes) {
+        if (!changes.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_SQL, changes, changes.size(), OutboxWriter::bind);
+        }
+    }
+
+    private static void bind(PreparedStatement ps, Change c) throws SQLException {
+        ps.setString(1, c.aggregateType());
+        ps.setLong(2, c.aggregateId());
+        ps.setString(3, c.changeType());
+        ps.setString(4, c.payload());
+        ps.setTimestamp(5, Timestamp.valueOf(c.createdAt()));
+    }
+
+    // 대상 엔티티가 아니면 null
+    private static String payload(Object entity) {
+        if (entity instanceof Member m) {
+            return memberPayload(m.getUsername(), m.getAge(), m.getTeam() == null ? null : m.getTeam().getId(), m.getType());
+        }
+        if (entity instanceof Team t) {
+            return teamPayload(t.getName(), t.getAge());
+        }
+        if (entity instanceof Order o) {
+            return "productId=" + (o.getProduct() == null ? null : o.getProduct().getId())
+                    + (o.getAddress() == null ? "" : ",city=" + o.getAddress().getCity()
+                    + ",street=" + o.getAddress().getStreet() + ",zipcode=" + o.getAddress().getZipcode());
+        }
+        return null;
+    }
+
+    // 엔티티를 로딩하지 않고 컬럼 값으로 같은 형식의 payload 를 만들 때도 쓴다.
+    public static String memberPayload(String username, int age, Long teamId, MemberType type) {
+        return "username=" + username + ",age=" + age + ",teamId=" + teamId + ",type=" + type;
+    }
+
+    public static String teamPayload(String name, int age) {
+        return "name=" + name + ",age=" + age;
+    }
+
+    public record Change(String aggregateType, Long aggregateId, String changeType, String payload,
+                         LocalDateTime createdAt) {
+    }
+}
@@ -0,0 +1,71 @@
+package jpa.jpastudy.read;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jpa.jpastudy.jpql.MemberDto;
+import jpa.jpastudy.jpql.TeamDto;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.function.Consumer;
+
+/**
+ * 목록 API는 NDJSON(한 줄에 하나)으로 흘려보낸다.
+ * StreamingResponseBody는 MVC async 스레드에서 실행되므로 톰캣 요청 스레드를 바로 돌려준다.
+ */
+@RestController
+@RequiredArgsConstructor
+public class MemberReadController {
+
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
+    private final MemberReadService memberReadService;
+    private final ObjectMapper objectMapper;
+
+    @GetMapping("/members/{id}")
+    public ResponseEntity<MemberDto> member(@PathVariable Long id) {
+        return ResponseEntity.of(memberReadService.findMember(id));
+    }
+
+    @GetMapping("/teams/{id}")
+    public ResponseEntity<TeamDto> team(@PathVariable Long id) {
+        return ResponseEntity.of(memberReadService.findTeam(id));
+    }
+
+    @GetMapping("/members")
+    public ResponseEntity<StreamingResponseBody> members() {
+        return ndjson(out -> memberReadService.streamMembers(null, writer(out)));
+    }
+
+    @GetMapping("/teams/{id}/members")
+    public ResponseEntity<StreamingResponseBody> teamMembers(@PathVariable Long id) {
+        return ndjson(out -> memberReadService.streamMembers(id, writer(out)));
+    }
+
+    @GetMapping("/teams")
+    public ResponseEntity<StreamingResponseBody> teams() {
+        return ndjson(out -> memberReadService.streamTeams(writer(out)));
+    }
+
+    private ResponseEntity<StreamingResponseBody> ndjson(StreamingResponseBody body) {
+        return ResponseEntity.ok().contentType(NDJSON).body(body);
+    }
+
+    private <T> Consumer<T> writer(OutputStream out) {
+        return value -> {
+            try {
+                out.write(objectMapper.writeValueAsBytes(value));
+                out.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        };
+    }
+}
@@ -0,0 +1,75 @@
+package jpa.jpastudy.read;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jpa.jpastudy.jpql.MemberDto;
+import jpa.jpastudy.jpql.TeamDto;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+@Service
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+public class MemberReadService {
+
+    @PersistenceContext
+    EntityManager em;
+
+    private final StreamingFetchSize streamingFetchSize;
+
+    @Value("${jpastudy.read.fetch-size:500}")
+    private int fetchSize;
+
+    public Optional<MemberDto> findMember(Long id) {
+        return em.createQuery(
+                        "select new jpa.jpastudy.jpql.MemberDto(m.username, m.age) from Member m where m.id = :id", MemberDto.class)
+                .setParameter("id", id)
+                .getResultStream()
+                .findFirst();
+    }
+
+    public Optional<TeamDto> findTeam(Long id) {
+        return em.createQuery(
+                        "select new jpa.jpastudy.jpql.TeamDto(t.id, t.name, count(m))" +
+                                " from Team t left join t.members m where t.id = :id group by t.id, t.name", TeamDto.class)
+                .setParameter("id", id)
+                .getResultStream()
+                .findFirst();
+    }
+
+    /**
+     * 회원을 DB 커서로 읽으면서 바로 consumer 에 넘긴다. 목록 전체를 메모리에 올리지 않는다.
+     * consumer 가 느리면(클라이언트가 느리게 받으면) 커서 읽기도 같이 느려진다.
+     */
+    public void streamMembers(Long teamId, Consumer<MemberDto> consumer) {
+        String jpql = "select new jpa.jpastudy.jpql.MemberDto(m.username, m.age) from Member m" +
+                (teamId == null ? "" : " where m.team.id = :teamId") +
+                " order by m.id";
+        var query = em.createQuery(jpql, MemberDto.class)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, streamingFetchSize.of(fetchSize))
+                .setHint(HibernateHints.HINT_READ_ONLY, true);
+        if (teamId != null) {
+            query.setParameter("teamId", teamId);
+        }
+        try (Stream<MemberDto> stream = query.getResultStream()) {
+            stream.forEach(consumer);
+        }
+    }
+
+    public void streamTeams(Consumer<TeamDto> consumer) {
+        String jpql = "select new jpa.jpastudy.jpql.TeamDto(t.id, t.name, count(m))" +
+                " from Team t left join t.members m group by t.id, t.name order by t.id";
+        try (Stream<TeamDto> stream = em.createQuery(jpql, TeamDto.class)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, streamingFetchSize.of(fetchSize))
+                .getResultStream()) {
+            stream.forEach(consumer);
+        }
+    }
+}
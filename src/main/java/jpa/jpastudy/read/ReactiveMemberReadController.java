@@ -0,0 +1,52 @@
+package jpa.jpastudy.read;
+
+import jpa.jpastudy.jpql.MemberDto;
+import jpa.jpastudy.jpql.TeamDto;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * MemberReadController 와 같은 API 의 논블로킹 버전. (/reactive/**)
+ * MVC 도 Mono/Flux 반환을 비동기로 처리하므로, DB 를 기다리는 동안 요청 스레드와 async 스레드를 잡지 않는다.
+ */
+@RestController
+@RequiredArgsConstructor
+public class ReactiveMemberReadController {
+
+    private final ReactiveMemberReadService reactiveMemberReadService;
+
+    @GetMapping("/reactive/members/{id}")
+    public Mono<ResponseEntity<MemberDto>> member(@PathVariable Long id) {
+        return reactiveMemberReadService.findMember(id)
+                .map(ResponseEntity::ok)
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+
+    @GetMapping("/reactive/teams/{id}")
+    public Mono<ResponseEntity<TeamDto>> team(@PathVariable Long id) {
+        return reactiveMemberReadService.findTeam(id)
+                .map(ResponseEntity::ok)
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+
+    @GetMapping(value = "/reactive/members", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<MemberDto> members() {
+        return reactiveMemberReadService.streamMembers(null);
+    }
+
+    @GetMapping(value = "/reactive/teams/{id}/members", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<MemberDto> teamMembers(@PathVariable Long id) {
+        return reactiveMemberReadService.streamMembers(id);
+    }
+
+    @GetMapping(value = "/reactive/teams", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<TeamDto> teams() {
+        return reactiveMemberReadService.streamTeams();
+    }
+}
@@ -0,0 +1,91 @@
+package jpa.jpastudy.read;
+
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.pool.PoolMetrics;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import io.r2dbc.spi.Row;
+import jakarta.annotation.PreDestroy;
+import jpa.jpastudy.jpql.MemberDto;
+import jpa.jpastudy.jpql.TeamDto;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * MemberReadService 의 논블로킹 버전. JPA 대신 R2DBC 로 같은 DTO 를 읽는다.
+ * 요청이 DB 응답을 기다리는 동안 스레드도 커넥션도 잡지 않고, 커넥션은 쿼리가 실행되는 동안만 풀에서 빌린다.
+ * ConnectionFactory 를 빈으로 등록하면 스프링 부트가 JDBC DataSource 자동 설정을 끄므로 풀은 이 클래스가 직접 들고 있는다.
+ */
+@Service
+public class ReactiveMemberReadService {
+
+    private final ConnectionPool pool;
+    private final DatabaseClient client;
+
+    public ReactiveMemberReadService(@Value("${jpastudy.reactive.url}") String url,
+                                     @Value("${jpastudy.reactive.username}") String username,
+                                     @Value("${jpastudy.reactive.password:}") String password,
+                                     @Value("${jpastudy.reactive.max-pool-size:20}") int maxPoolSize) {
+        ConnectionFactoryOptions options = ConnectionFactoryOptions.parse(url).mutate()
+                .option(ConnectionFactoryOptions.USER, username)
+                .option(ConnectionFactoryOptions.PASSWORD, password)
+                .build();
+        this.pool = new ConnectionPool(ConnectionPoolConfiguration.builder(ConnectionFactories.get(options))
+                .maxSize(maxPoolSize)
+                .build());
+        this.client = DatabaseClient.create(pool);
+    }
+
+    @PreDestroy
+    void close() {
+        pool.dispose();
+    }
+
+    public Mono<MemberDto> findMember(Long id) {
+        return client.sql("select username, age from `member` where id = :id")
+                .bind("id", id)
+                .map((row, metadata) -> new MemberDto(row.get("username", String.class), row.get("age", Integer.class)))
+                .one();
+    }
+
+    public Mono<TeamDto> findTeam(Long id) {
+        return client.sql("select t.id, t.name, count(m.id) as member_count from team t left join `member` m on m.team_id = t.id" +
+                        " where t.id = :id group by t.id, t.name")
+                .bind("id", id)
+                .map((row, metadata) -> teamDto(row))
+                .one();
+    }
+
+    /**
+     * 구독자가 요청한 만큼만 행을 당겨온다. (backpressure)
+     */
+    public Flux<MemberDto> streamMembers(Long teamId) {
+        DatabaseClient.GenericExecuteSpec spec = client.sql("select username, age from `member`" +
+                (teamId == null ? "" : " where team_id = :teamId") + " order by id");
+        if (teamId != null) {
+            spec = spec.bind("teamId", teamId);
+        }
+        return spec.map((row, metadata) -> new MemberDto(row.get("username", String.class), row.get("age", Integer.class)))
+                .all();
+    }
+
+    public Flux<TeamDto> streamTeams() {
+        return client.sql("select t.id, t.name, count(m.id) as member_count from team t left join `member` m on m.team_id = t.id" +
+                        " group by t.id, t.name order by t.id")
+                .map((row, metadata) -> teamDto(row))
+                .all();
+    }
+
+    // 현재 빌려 간 커넥션 수 (부하 비교용)
+    public int acquiredConnections() {
+        return pool.getMetrics().map(PoolMetrics::acquiredSize).orElse(0);
+    }
+
+    private static TeamDto teamDto(Row row) {
+        return new TeamDto(row.get("id", Long.class), row.get("name", String.class), row.get("member_count", Long.class));
+    }
+}
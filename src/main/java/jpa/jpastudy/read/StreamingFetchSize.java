@@ -0,0 +1,25 @@
+package jpa.jpastudy.read;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * 결과를 끝까지 커서로 읽는 조회(NDJSON 스트림, 스냅샷 export)에 줄 fetch size.
+ * MySQL Connector/J 는 URL 에 useCursorFetch 가 없으면 fetch size 를 무시하고 결과 전체를 메모리에 받는다.
+ * URL 에 켜면 모든 쿼리가 서버 커서를 쓰게 되므로, 대신 이 조회들에만 Integer.MIN_VALUE(행 단위 스트리밍)를 준다.
+ * 스트리밍 중에는 그 커넥션으로 다른 쿼리를 보낼 수 없으므로 쿼리 하나만 읽는 곳에서만 쓴다.
+ */
+@Component
+public class StreamingFetchSize {
+
+    private final boolean mysql;
+
+    public StreamingFetchSize(@Value("${spring.datasource.url:}") String url) {
+        this.mysql = url.startsWith("jdbc:mysql:");
+    }
+
+    // MySQL 이 아니면 설정한 값을 그대로 쓴다.
+    public int of(int configured) {
+        return mysql ? Integer.MIN_VALUE : configured;
+    }
+}
@@ -0,0 +1,11 @@
+package jpa.jpastudy.scan;
+
+/**
+ * (fromExclusive, toInclusive] 구간의 id 범위
+ */
+public record IdRange(long fromExclusive, long toInclusive) {
+
+    public boolean isEmpty() {
+        return fromExclusive >= toInclusive;
+    }
+}
@@ -0,0 +1,279 @@
+package jpa.jpastudy.scan;
+
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.TypedQuery;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.Session;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiConsumer;
+import java.util.function.BinaryOperator;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * 엔티티 전체 스캔을 id 범위로 나눠 병렬로 읽는다.
+ * 파티션마다 EntityManager(=커넥션) 하나를 쓰고, 파티션 안에서는 id 기준 keyset 페이징 후 clear 해서 메모리를 일정하게 유지한다.
+ * condition 은 별칭 e 를 기준으로 쓴다. ex) "e.age > :age"
+ */
+@Component
+@RequiredArgsConstructor
+public class PartitionedScanner {
+
+    private static final long OFFER_TIMEOUT_MILLIS = 100;
+
+    private final EntityManagerFactory emf;
+
+    @Value("${jpastudy.scan.parallelism:4}")
+    private int parallelism;
+
+    @Value("${jpastudy.scan.page-size:1000}")
+    private int pageSize;
+
+    @Value("${jpastudy.scan.abandon-timeout-ms:60000}")
+    private long abandonTimeoutMillis;
+
+    private volatile ForkJoinPool pool;
+
+    @PreDestroy
+    void shutdown() {
+        if (pool != null) {
+            pool.shutdown();
+        }
+    }
+
+    public List<IdRange> partitions(Class<?> entityClass, int count) {
+        EntityManager em = emf.createEntityManager();
+        try {
+            Object[] minMax = em.createQuery("select min(e.id), max(e.id) from " + entityName(entityClass) + " e", Object[].class)
+                    .getSingleResult();
+            if (minMax[0] == null) {
+                return List.of();
+            }
+            return split((Long) minMax[0] - 1, (Long) minMax[1], count);
+        } finally {
+            em.close();
+        }
+    }
+
+    static List<IdRange> split(long fromExclusive, long toInclusive, int count) {
+        long width = Math.max(1, (toInclusive - fromExclusive + count - 1) / count);
+        List<IdRange> ranges = new ArrayList<>(count);
+        for (long from = fromExclusive; from < toInclusive; from += width) {
+            ranges.add(new IdRange(from, Math.min(from + width, toInclusive)));
+        }
+        return ranges;
+    }
+
+    /**
+     * 파티션마다 accumulator를 따로 채운 뒤 combiner로 합친다.
+     */
+    public <T, A> A reduce(Class<T> entityClass, String condition, Map<String, ?> params,
+                           Supplier<A> identity, BiConsumer<A, T> accumulator, BinaryOperator<A> combiner) {
+        List<CompletableFuture<A>> futures = partitions(entityClass, parallelism).stream()
+                .map(range -> CompletableFuture.supplyAsync(() -> {
+                    A partial = identity.get();
+                    scanRange(entityClass, range, condition, params, page -> page.forEach(e -> accumulator.accept(partial, e)));
+                    return partial;
+                }, pool()))
+                .toList();
+        A result = identity.get();
+        for (CompletableFuture<A> future : futures) {
+            result = combiner.apply(result, join(future));
+        }
+        return result;
+    }
+
+    /**
+     * 파티션들이 병렬로 읽은 결과를 하나의 Stream으로 흘려보낸다. 순서는 보장하지 않는다.
+     * 내부 큐가 가득 차면 읽는 쪽이 기다리므로 소비 속도 이상으로 메모리에 쌓이지 않는다.
+     * 읽어온 엔티티는 준영속 상태다.
+     * 끝까지 소비하지 않는 경우(limit, findFirst 등)에는 try-with-resources 로 스트림을 닫아야 읽기 작업이 멈추고 커넥션이 반납된다.
+     * 한 파티션이 실패하면 나머지도 취소되고 소비 쪽에 그 예외가 던져진다.
+     */
+    public <T> Stream<T> stream(Class<T> entityClass, String condition, Map<String, ?> params) {
+        List<IdRange> ranges = partitions(entityClass, parallelism);
+        BlockingQueue<Object> queue = new ArrayBlockingQueue<>(pageSize * Math.max(1, ranges.size()));
+        AtomicBoolean cancelled = new AtomicBoolean();
+        AtomicReference<RuntimeException> failure = new AtomicReference<>();
+        AtomicInteger running = new AtomicInteger(ranges.size());
+        for (IdRange range : ranges) {
+            pool().execute(() -> {
+                try {
+                    scanRange(entityClass, range, condition, params, cancelled,
+                            page -> page.forEach(e -> offer(queue, e, cancelled, failure)));
+                } catch (ScanCancelledException e) {
+                    // 소비 쪽이 스트림을 닫았거나 다른 파티션이 실패했다.
+                } catch (RuntimeException e) {
+                    failure.compareAndSet(null, e);
+                    cancelled.set(true);
+                } finally {
+                    running.decrementAndGet();
+                }
+            });
+        }
+        Iterator<T> iterator = new Iterator<>() {
+            Object next;
+
+            @Override
+            public boolean hasNext() {
+                while (next == null) {
+                    RuntimeException cause = failure.get();
+                    if (cause != null) {
+                        throw cause;
+                    }
+                    // 읽기 작업은 큐에 넣은 뒤에 running 을 줄이므로 0 이면 남은 것은 큐에 있는 것뿐이다.
+                    boolean finished = running.get() == 0;
+                    next = poll(queue);
+                    if (next == null && finished && queue.isEmpty()) {
+                        return false;
+                    }
+                }
+                return true;
+            }
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public T next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                T item = (T) next;
+                next = null;
+                return item;
+            }
+        };
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.NONNULL), false)
+                .onClose(() -> {
+                    cancelled.set(true);
+                    queue.clear();
+                });
+    }
+
+    public <T> void scanRange(Class<T> entityClass, IdRange range, String condition, Map<String, ?> params,
+                              Consumer<List<T>> pageConsumer) {
+        scanRange(entityClass, range, condition, params, new AtomicBoolean(), pageConsumer);
+    }
+
+    private <T> void scanRange(Class<T> entityClass, IdRange range, String condition, Map<String, ?> params,
+                               AtomicBoolean cancelled, Consumer<List<T>> pageConsumer) {
+        String jpql = "select e from " + entityName(entityClass) + " e" +
+                " where e.id > :after and e.id <= :to" +
+                (condition == null ? "" : " and (" + condition + ")") +
+                " order by e.id";
+        EntityManager em = emf.createEntityManager();
+        try {
+            em.unwrap(Session.class).setDefaultReadOnly(true);
+            em.getTransaction().begin();
+            long after = range.fromExclusive();
+            while (!cancelled.get()) {
+                TypedQuery<T> query = em.createQuery(jpql, entityClass)
+                        .setParameter("after", after)
+                        .setParameter("to", range.toInclusive())
+                        .setMaxResults(pageSize);
+                if (params != null) {
+                    params.forEach(query::setParameter);
+                }
+                List<T> page = query.getResultList();
+                if (page.isEmpty()) {
+                    break;
+                }
+                after = (Long) emf.getPersistenceUnitUtil().getIdentifier(page.get(page.size() - 1));
+                em.clear();
+                pageConsumer.accept(page);
+                if (page.size() < pageSize) {
+                    break;
+                }
+            }
+            em.getTransaction().commit();
+        } finally {
+            if (em.getTransaction().isActive()) {
+                em.getTransaction().rollback();
+            }
+            em.close();
+        }
+    }
+
+    private String entityName(Class<?> entityClass) {
+        return emf.getMetamodel().entity(entityClass).getName();
+    }
+
+    private ForkJoinPool pool() {
+        if (pool == null) {
+            synchronized (this) {
+                if (pool == null) {
+                    pool = new ForkJoinPool(parallelism);
+                }
+            }
+        }
+        return pool;
+    }
+
+    private static <A> A join(CompletableFuture<A> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+    }
+
+    // 소비 쪽이 닫으면 기다리지 않고 빠져나온다. 닫지 않고 버린 스트림은 abandon-timeout 동안 소비가 없으면 취소한다.
+    // 버린 게 아니라 느린 소비자였을 수도 있으므로 failure 를 남겨, 이어서 읽으면 일부가 빠진 채 끝나지 않고 예외가 나게 한다.
+    private void offer(BlockingQueue<Object> queue, Object item, AtomicBoolean cancelled,
+                       AtomicReference<RuntimeException> failure) {
+        long waitedMillis = 0;
+        try {
+            while (!queue.offer(item, OFFER_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+                waitedMillis += OFFER_TIMEOUT_MILLIS;
+                if (waitedMillis >= abandonTimeoutMillis && !cancelled.get()) {
+                    failure.compareAndSet(null, new IllegalStateException(
+                            "스트림이 " + abandonTimeoutMillis + "ms 동안 소비되지 않아 스캔을 중단했습니다. (jpastudy.scan.abandon-timeout-ms)"));
+                    cancelled.set(true);
+                }
+                if (cancelled.get()) {
+                    throw new ScanCancelledException();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ScanCancelledException();
+        }
+    }
+
+    private static Object poll(BlockingQueue<Object> queue) {
+        try {
+            return queue.poll(OFFER_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("스캔 중 인터럽트", e);
+        }
+    }
+
+    private static final class ScanCancelledException extends RuntimeException {
+
+        ScanCancelledException() {
+            super(null, null, false, false);
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package jpa.jpastudy.shard;
+
+import jakarta.persistence.LockModeType;
+import jpa.jpastudy.jpql.Member;
+import jpa.jpastudy.jpql.Team;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.ReplicationMode;
+import org.hibernate.Session;
+
+import java.util.List;
+
+/**
+ * 샤드 수가 바뀐 뒤, 현재 라우팅과 다른 샤드에 있는 팀을 소속 회원과 함께 옮긴다.
+ * 원래 샤드의 팀 행을 잠근 채 대상 샤드에 먼저 복사(OVERWRITE)하고 커밋한 뒤, 복사한 회원만 원래 샤드에서 지운다.
+ * 중간에 실패해도 다시 실행하면 된다.
+ */
+@Slf4j
+public class ShardRebalancer {
+
+    private final ShardedEntityManagers sharded;
+
+    public ShardRebalancer(ShardedEntityManagers sharded) {
+        this.sharded = sharded;
+    }
+
+    /**
+     * 옮긴 팀 수를 반환한다.
+     */
+    public int rebalance() {
+        int moved = 0;
+        for (int source = 0; source < sharded.size(); source++) {
+            List<Long> teamIds = sharded.inShard(source, em ->
+                    em.createQuery("select t.id from Team t", Long.class).getResultList());
+            for (Long teamId : teamIds) {
+                int target = sharded.shardOf(teamId);
+                if (target != source) {
+                    move(teamId, source, target);
+                    moved++;
+                }
+            }
+        }
+        return moved;
+    }
+
+    // 원래 샤드 트랜잭션에서 팀 행을 잠근 채로 복사 -> 대상 커밋 -> 복사한 회원만 삭제 -> 팀 삭제 순서로 진행한다.
+    // 팀을 잠그는 동안 그 팀을 참조하는 회원 insert(FK 검사)는 기다리므로 복사와 삭제 사이에 새 회원이 끼어들지 못한다.
+    // 그래도 복사하지 않은 회원이 남아 있으면 팀 삭제가 FK 로 실패하고 롤백되므로, 다시 실행하면 그 회원까지 옮긴다.
+    private void move(Long teamId, int source, int target) {
+        int movedMembers = sharded.inShard(source, em -> {
+            Team locked = em.find(Team.class, teamId, LockModeType.PESSIMISTIC_WRITE);
+            if (locked == null) {
+                return 0;
+            }
+            // 원래 세션의 프록시/컬렉션이 딸려가지 않도록 값만 복사한다.
+            Team team = copy(locked);
+            List<Member> members = em.createQuery("select m from Member m where m.team.id = :teamId", Member.class)
+                    .setParameter("teamId", teamId)
+                    .getResultStream()
+                    .map(member -> copy(member, team))
+                    .toList();
+
+            sharded.inShard(target, targetEm -> {
+                Session session = targetEm.unwrap(Session.class);
+                session.replicate(team, ReplicationMode.OVERWRITE);
+                members.forEach(member -> session.replicate(member, ReplicationMode.OVERWRITE));
+                return null;
+            });
+
+            List<Long> copiedIds = members.stream().map(Member::getId).toList();
+            if (!copiedIds.isEmpty()) {
+                em.createQuery("delete from Member m where m.id in :copiedIds")
+                        .setParameter("copiedIds", copiedIds)
+                        .executeUpdate();
+            }
+            em.createQuery("delete from Team t where t.id = :teamId")
+                    .setParameter("teamId", teamId)
+                    .executeUpdate();
+            return members.size();
+        });
+        log.info("team {} moved shard {} -> {} ({} members)", teamId, source, target, movedMembers);
+    }
+
+    private static Team copy(Team source) {
+        Team team = new Team();
+        team.setId(source.getId());
+        team.setName(source.getName());
+        team.setAge(source.getAge());
+        return team;
+    }
+
+    private static Member copy(Member source, Team team) {
+        Member member = new Member();
+        member.setId(source.getId());
+        member.setUsername(source.getUsername());
+        member.setAge(source.getAge());
+        member.setType(source.getType());
+        member.setTeam(team);
+        return member;
+    }
+}
@@ -0,0 +1,208 @@
+package jpa.jpastudy.shard;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.EntityTransaction;
+import jakarta.persistence.TypedQuery;
+import jpa.jpastudy.jpql.Member;
+import jpa.jpastudy.jpql.Team;
+import org.hibernate.ReplicationMode;
+import org.hibernate.Session;
+import org.hibernate.boot.model.naming.CamelCaseToUnderscoresNamingStrategy;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.IdentifierGenerator;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+
+/**
+ * Member / Team 을 팀 id 해시로 여러 DB 에 나눠 저장한다. 회원은 자기 팀과 같은 샤드에 둔다.
+ * id 는 0번 샤드의 생성기에서 받아 전체 샤드에서 유일하게 유지하고, 받은 id 그대로 대상 샤드에 replicate 한다.
+ * 그래서 샤드를 늘려도 행을 id 그대로 옮길 수 있다. (ShardRebalancer)
+ */
+public class ShardedEntityManagers implements AutoCloseable {
+
+    private static final int ID_AUTHORITY = 0;
+
+    private final List<EntityManagerFactory> shards;
+    private final ExecutorService executor;
+    private final List<AutoCloseable> resources = new ArrayList<>();
+
+    public ShardedEntityManagers(List<EntityManagerFactory> shards) {
+        if (shards.isEmpty()) {
+            throw new IllegalArgumentException("샤드가 하나 이상 필요합니다.");
+        }
+        this.shards = List.copyOf(shards);
+        this.executor = Executors.newFixedThreadPool(shards.size(), r -> {
+            Thread thread = new Thread(r, "shard-query");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * 데이터소스마다 jpa.jpastudy.jpql 엔티티로 EntityManagerFactory 를 만든다.
+     */
+    public static ShardedEntityManagers create(List<DataSource> dataSources, Map<String, Object> jpaProperties) {
+        List<EntityManagerFactory> factories = new ArrayList<>();
+        for (int i = 0; i < dataSources.size(); i++) {
+            Map<String, Object> properties = new HashMap<>();
+            properties.put("hibernate.physical_naming_strategy", CamelCaseToUnderscoresNamingStrategy.class.getName());
+            properties.putAll(jpaProperties);
+
+            LocalContainerEntityManagerFactoryBean factoryBean = new LocalContainerEntityManagerFactoryBean();
+            factoryBean.setPersistenceUnitName("shard-" + i);
+            factoryBean.setDataSource(dataSources.get(i));
+            factoryBean.setPackagesToScan("jpa.jpastudy.jpql");
+            factoryBean.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
+            factoryBean.setJpaPropertyMap(properties);
+            factoryBean.afterPropertiesSet();
+            factories.add(factoryBean.getObject());
+        }
+        ShardedEntityManagers sharded = new ShardedEntityManagers(factories);
+        // 커넥션 풀처럼 닫을 수 있는 DataSource 는 close() 때 같이 닫는다.
+        dataSources.stream()
+                .filter(AutoCloseable.class::isInstance)
+                .map(AutoCloseable.class::cast)
+                .forEach(sharded.resources::add);
+        return sharded;
+    }
+
+    public int size() {
+        return shards.size();
+    }
+
+    public int shardOf(long teamId) {
+        long h = teamId * 0x9E3779B97F4A7C15L;
+        return (int) Math.floorMod(h ^ (h >>> 32), (long) shards.size());
+    }
+
+    public <R> R inShard(int shard, Function<EntityManager, R> work) {
+        EntityManager em = shards.get(shard).createEntityManager();
+        EntityTransaction tx = em.getTransaction();
+        try {
+            tx.begin();
+            R result = work.apply(em);
+            tx.commit();
+            return result;
+        } finally {
+            if (tx.isActive()) {
+                tx.rollback();
+            }
+            em.close();
+        }
+    }
+
+    public <R> R withTeam(long teamId, Function<EntityManager, R> work) {
+        return inShard(shardOf(teamId), work);
+    }
+
+    public Team persistTeam(Team team) {
+        team.setId(allocateId(Team.class, team));
+        return withTeam(team.getId(), em -> {
+            em.unwrap(Session.class).replicate(team, ReplicationMode.EXCEPTION);
+            return team;
+        });
+    }
+
+    public Member persistMember(Member member) {
+        if (member.getTeam() == null || member.getTeam().getId() == null) {
+            throw new IllegalArgumentException("샤드 키가 되는 팀이 없는 회원은 저장할 수 없습니다.");
+        }
+        member.setId(allocateId(Member.class, member));
+        return withTeam(member.getTeam().getId(), em -> {
+            em.unwrap(Session.class).replicate(member, ReplicationMode.EXCEPTION);
+            return member;
+        });
+    }
+
+    /**
+     * 모든 샤드에 같은 JPQL 을 실행하고 order 기준으로 k-way merge 해서 limit 건만 돌려준다.
+     * 샤드마다 상위 limit 건만 가져오므로 JPQL 의 order by 와 order 가 같은 순서여야 한다.
+     * order 가 null 이면 샤드 순서대로 이어 붙인다. 반환된 엔티티는 준영속 상태다.
+     */
+    public <T> List<T> scatterGather(String jpql, Class<T> resultClass, Map<String, ?> params,
+                                     Comparator<? super T> order, int limit) {
+        List<CompletableFuture<List<T>>> futures = new ArrayList<>();
+        for (int shard = 0; shard < shards.size(); shard++) {
+            int target = shard;
+            futures.add(CompletableFuture.supplyAsync(() -> inShard(target, em -> {
+                TypedQuery<T> query = em.createQuery(jpql, resultClass).setMaxResults(limit);
+                params.forEach(query::setParameter);
+                return query.getResultList();
+            }), executor));
+        }
+        List<List<T>> partials = futures.stream().map(CompletableFuture::join).toList();
+        return merge(partials, order, limit);
+    }
+
+    static <T> List<T> merge(List<List<T>> partials, Comparator<? super T> order, int limit) {
+        List<T> merged = new ArrayList<>(limit);
+        if (order == null) {
+            for (List<T> partial : partials) {
+                for (T item : partial) {
+                    if (merged.size() == limit) {
+                        return merged;
+                    }
+                    merged.add(item);
+                }
+            }
+            return merged;
+        }
+        PriorityQueue<Head<T>> heads = new PriorityQueue<>((a, b) -> order.compare(a.value, b.value));
+        for (List<T> partial : partials) {
+            Iterator<T> iterator = partial.iterator();
+            if (iterator.hasNext()) {
+                heads.add(new Head<>(iterator.next(), iterator));
+            }
+        }
+        while (merged.size() < limit && !heads.isEmpty()) {
+            Head<T> head = heads.poll();
+            merged.add(head.value);
+            if (head.rest.hasNext()) {
+                heads.add(new Head<>(head.rest.next(), head.rest));
+            }
+        }
+        return merged;
+    }
+
+    // 0번 샤드의 @GeneratedValue 생성기(시퀀스)에서 id 를 받는다.
+    private Long allocateId(Class<?> entityClass, Object entity) {
+        SessionFactoryImplementor sessionFactory = shards.get(ID_AUTHORITY).unwrap(SessionFactoryImplementor.class);
+        IdentifierGenerator generator = (IdentifierGenerator) sessionFactory.getMappingMetamodel()
+                .getEntityDescriptor(entityClass)
+                .getGenerator();
+        try (Session session = sessionFactory.openSession()) {
+            return (Long) generator.generate((SharedSessionContractImplementor) session, entity);
+        }
+    }
+
+    @Override
+    public void close() {
+        executor.shutdown();
+        shards.forEach(EntityManagerFactory::close);
+        for (AutoCloseable resource : resources) {
+            try {
+                resource.close();
+            } catch (Exception e) {
+                throw new IllegalStateException("샤드 DataSource 를 닫지 못했습니다.", e);
+            }
+        }
+    }
+
+    private record Head<T>(T value, Iterator<T> rest) {
+    }
+}
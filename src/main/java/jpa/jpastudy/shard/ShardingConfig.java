@@ -0,0 +1,46 @@
+package jpa.jpastudy.shard;
+
+import com.zaxxer.hikari.HikariDataSource;
+import jpa.jpastudy.cache.QueryCacheConfig;
+import jpa.jpastudy.cache.TableVersions;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 샤드용 DataSource / EntityManagerFactory 는 빈으로 등록하지 않는다.
+ * 등록하면 기본 EntityManagerFactory 자동 설정이 꺼지기 때문에 ShardedEntityManagers 안에서만 관리한다.
+ */
+@Configuration
+@EnableConfigurationProperties(ShardingProperties.class)
+@ConditionalOnProperty(name = "jpastudy.sharding.enabled", havingValue = "true")
+public class ShardingConfig {
+
+    @Bean(destroyMethod = "close")
+    public ShardedEntityManagers shardedEntityManagers(ShardingProperties properties, TableVersions tableVersions) {
+        List<DataSource> dataSources = properties.getShards().stream()
+                .map(shard -> (DataSource) DataSourceBuilder.create()
+                        .type(HikariDataSource.class)
+                        .url(shard.getUrl())
+                        .username(shard.getUsername())
+                        .password(shard.getPassword())
+                        .build())
+                .toList();
+        // 샤드 세션의 쓰기도 커밋 후 쿼리 캐시를 무효화하도록 같은 인스펙터 / 인터셉터를 건다.
+        Map<String, Object> jpaProperties = new HashMap<>(QueryCacheConfig.hibernateProperties(tableVersions));
+        jpaProperties.putAll(properties.getProperties());
+        return ShardedEntityManagers.create(dataSources, jpaProperties);
+    }
+
+    @Bean
+    public ShardRebalancer shardRebalancer(ShardedEntityManagers shardedEntityManagers) {
+        return new ShardRebalancer(shardedEntityManagers);
+    }
+}
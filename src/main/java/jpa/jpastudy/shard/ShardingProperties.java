@@ -0,0 +1,29 @@
+package jpa.jpastudy.shard;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@Getter @Setter
+@ConfigurationProperties("jpastudy.sharding")
+public class ShardingProperties {
+
+    private boolean enabled;
+
+    private List<Shard> shards = new ArrayList<>();
+
+    // 샤드 EntityManagerFactory 에 넘길 추가 hibernate 설정
+    private Map<String, String> properties = new HashMap<>();
+
+    @Getter @Setter
+    public static class Shard {
+        private String url;
+        private String username;
+        private String password;
+    }
+}
@@ -0,0 +1,51 @@
+package jpa.jpastudy.startup;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
+import org.springframework.boot.context.metrics.buffering.StartupTimeline;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.metrics.StartupStep;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
+
+/**
+ * 기동이 끝나면 오래 걸린 단계(빈 생성, EntityManagerFactory 초기화 등)를 로그로 남긴다.
+ * main()에서 BufferingApplicationStartup을 설정했을 때만 동작한다.
+ */
+@Slf4j
+@Component
+public class StartupTimingReporter {
+
+    @Value("${jpastudy.startup.report:false}")
+    private boolean enabled;
+
+    @Value("${jpastudy.startup.top:20}")
+    private int top;
+
+    @EventListener
+    public void report(ApplicationReadyEvent event) {
+        if (!enabled || !(event.getApplicationContext().getApplicationStartup() instanceof BufferingApplicationStartup startup)) {
+            return;
+        }
+        StartupTimeline timeline = startup.getBufferedTimeline();
+        String slowest = timeline.getEvents().stream()
+                .sorted(Comparator.comparing(StartupTimeline.TimelineEvent::getDuration).reversed())
+                .limit(top)
+                .map(e -> String.format("%6d ms  %s %s", e.getDuration().toMillis(), e.getStartupStep().getName(), tags(e.getStartupStep())))
+                .collect(Collectors.joining("\n"));
+        Duration timeTaken = event.getTimeTaken();
+        log.info("startup took {} ms, slowest steps:\n{}", timeTaken == null ? "?" : timeTaken.toMillis(), slowest);
+    }
+
+    private static String tags(StartupStep step) {
+        return StreamSupport.stream(step.getTags().spliterator(), false)
+                .map(tag -> tag.getKey() + "=" + tag.getValue())
+                .collect(Collectors.joining(", ", "[", "]"));
+    }
+}
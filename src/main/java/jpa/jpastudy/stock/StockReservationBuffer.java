@@ -0,0 +1,103 @@
+package jpa.jpastudy.stock;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 인기 상품의 차감 요청을 상품별로 모아 한 번의 조건부 update로 처리한다.
+ * 먼저 도착한 스레드가 리더가 되어 쌓인 요청을 한꺼번에 반영하고, 나머지 스레드는 결과만 기다린다.
+ * 재고가 모자라면 도착 순서대로 남은 재고만큼만 승인한다.
+ */
+@Component
+@RequiredArgsConstructor
+public class StockReservationBuffer {
+
+    private static final int MAX_PARTIAL_ATTEMPTS = 3;
+
+    private final StockService stockService;
+
+    private final Map<Long, ProductQueue> queues = new ConcurrentHashMap<>();
+
+    public boolean reserve(Long productId, int quantity) {
+        if (quantity <= 0) {
+            throw new IllegalArgumentException("quantity must be positive: " + quantity);
+        }
+        Reservation reservation = new Reservation(quantity);
+        ProductQueue queue = queues.computeIfAbsent(productId, id -> new ProductQueue());
+        queue.pending.add(reservation);
+        drain(productId, queue);
+        return reservation.result.join();
+    }
+
+    private void drain(Long productId, ProductQueue queue) {
+        while (!queue.pending.isEmpty() && queue.draining.compareAndSet(false, true)) {
+            try {
+                List<Reservation> batch = new ArrayList<>();
+                Reservation r;
+                while ((r = queue.pending.poll()) != null) {
+                    batch.add(r);
+                }
+                if (!batch.isEmpty()) {
+                    apply(productId, batch);
+                }
+            } finally {
+                queue.draining.set(false);
+            }
+        }
+    }
+
+    private void apply(Long productId, List<Reservation> batch) {
+        try {
+            int total = batch.stream().mapToInt(Reservation::quantity).sum();
+            if (stockService.decreaseProduct(productId, total)) {
+                batch.forEach(r -> r.result.complete(true));
+                return;
+            }
+            applyPartially(productId, batch);
+        } catch (RuntimeException e) {
+            batch.forEach(r -> r.result.completeExceptionally(e));
+        }
+    }
+
+    // 전체 수량이 안 되면 현재 재고 안에서 앞에서부터 승인 가능한 만큼만 차감
+    private void applyPartially(Long productId, List<Reservation> batch) {
+        for (int attempt = 0; attempt < MAX_PARTIAL_ATTEMPTS; attempt++) {
+            int available = stockService.currentProductStock(productId);
+            int granted = 0;
+            int count = 0;
+            for (Reservation r : batch) {
+                if (granted + r.quantity() > available) {
+                    break;
+                }
+                granted += r.quantity();
+                count++;
+            }
+            if (granted == 0 || stockService.decreaseProduct(productId, granted)) {
+                for (int i = 0; i < batch.size(); i++) {
+                    batch.get(i).result.complete(i < count);
+                }
+                return;
+            }
+        }
+        batch.forEach(r -> r.result.complete(false));
+    }
+
+    private static class ProductQueue {
+        final ConcurrentLinkedQueue<Reservation> pending = new ConcurrentLinkedQueue<>();
+        final AtomicBoolean draining = new AtomicBoolean();
+    }
+
+    private record Reservation(int quantity, CompletableFuture<Boolean> result) {
+        Reservation(int quantity) {
+            this(quantity, new CompletableFuture<>());
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package jpa.jpastudy.stock;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.OptimisticLockException;
+import jakarta.persistence.PersistenceContext;
+import jpa.jpastudy.jpql.Product;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.StaleStateException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+@Service
+@RequiredArgsConstructor
+public class StockService {
+
+    private static final int MAX_ATTEMPTS = 10;
+    private static final long BASE_BACKOFF_MILLIS = 5;
+
+    @PersistenceContext
+    EntityManager em;
+
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * 재고가 충분할 때만 한 번의 update로 차감한다. (조건부 원자적 차감)
+     * 벌크 연산이라 영속성 컨텍스트를 거치지 않으므로, 같은 트랜잭션에서 이미 조회한 Product는 갱신되지 않는다.
+     */
+    @Transactional
+    public boolean decreaseProduct(Long productId, int quantity) {
+        int updated = em.createQuery(
+                        "update Product p" +
+                                " set p.stockAmount = p.stockAmount - :quantity, p.version = p.version + 1" +
+                                " where p.id = :id and p.stockAmount >= :quantity")
+                .setParameter("quantity", quantity)
+                .setParameter("id", productId)
+                .executeUpdate();
+        return updated == 1;
+    }
+
+    @Transactional
+    public boolean decreaseItem(Long itemId, int quantity) {
+        int updated = em.createQuery(
+                        "update Item i" +
+                                " set i.stockQuantity = i.stockQuantity - :quantity, i.version = i.version + 1" +
+                                " where i.id = :id and i.stockQuantity >= :quantity")
+                .setParameter("quantity", quantity)
+                .setParameter("id", itemId)
+                .executeUpdate();
+        return updated == 1;
+    }
+
+    @Transactional(readOnly = true)
+    public int currentProductStock(Long productId) {
+        return em.createQuery("select p.stockAmount from Product p where p.id = :id", Integer.class)
+                .setParameter("id", productId)
+                .getSingleResult();
+    }
+
+    /**
+     * @Version 기반 낙관적 락으로 차감한다. 충돌하면 지수 백오프(+jitter) 후 새 트랜잭션에서 다시 시도한다.
+     * 바깥 트랜잭션 안에서 호출하면 재시도가 의미 없으므로 트랜잭션 밖에서 호출해야 한다.
+     */
+    public boolean decreaseProductOptimistic(Long productId, int quantity) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return Boolean.TRUE.equals(transactionTemplate.execute(status -> {
+                    Product product = em.find(Product.class, productId);
+                    if (product.getStockAmount() < quantity) {
+                        return false;
+                    }
+                    product.setStockAmount(product.getStockAmount() - quantity);
+                    em.flush();
+                    return true;
+                }));
+            } catch (RuntimeException e) {
+                if (!isOptimisticLockFailure(e) || attempt >= MAX_ATTEMPTS) {
+                    throw e;
+                }
+                backoff(attempt);
+            }
+        }
+    }
+
+    // 공유 EntityManager의 flush는 예외 변환 없이 jakarta OptimisticLockException을 그대로 던지고,
+    // 커밋 시점 충돌은 트랜잭션 매니저가 ObjectOptimisticLockingFailureException으로 바꿔 던진다.
+    static boolean isOptimisticLockFailure(Throwable e) {
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            if (t instanceof OptimisticLockException
+                    || t instanceof StaleStateException
+                    || t instanceof ObjectOptimisticLockingFailureException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void backoff(int attempt) {
+        long max = BASE_BACKOFF_MILLIS << Math.min(attempt, 6);
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(max / 2, max + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("재고 차감 재시도 중 인터럽트", e);
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package jpa.jpastudy.trace;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("jpastudy.Flush")
+@Label("Hibernate Flush")
+@Description("flush 한 번. entityCount 는 dirty check 대상이 된 영속성 컨텍스트의 엔티티 수")
+@Category({"JPA Study", "Hibernate"})
+class FlushEvent extends Event {
+
+    @Label("Partial")
+    @Description("쿼리 실행 전 auto flush")
+    boolean partial;
+
+    @Label("Entities")
+    int entityCount;
+
+    @Label("Collections")
+    int collectionCount;
+}
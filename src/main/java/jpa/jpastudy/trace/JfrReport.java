@@ -0,0 +1,141 @@
+package jpa.jpastudy.trace;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingFile;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * JFR 녹화 파일의 jpastudy.* 이벤트를 요약한다. (./gradlew jfrReport -Pjfr=recording.jfr)
+ * 녹화: java -XX:StartFlightRecording=filename=recording.jfr,settings=profile -Djpastudy.tracing.enabled=true -jar ...
+ */
+public class JfrReport {
+
+    private static final int TOP = 15;
+
+    private final List<Long> sessionNanos = new ArrayList<>();
+    private final List<Long> flushNanos = new ArrayList<>();
+    private final List<Integer> flushEntities = new ArrayList<>();
+    private final Map<Integer, QueryStat> queries = new HashMap<>();
+    private final Map<String, Long> lazyLoads = new HashMap<>();
+    private int maxSessionFlushes;
+    private int maxSessionStatements;
+
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            System.err.println("usage: JfrReport <recording.jfr>");
+            System.exit(1);
+        }
+        JfrReport report = new JfrReport();
+        try (RecordingFile file = new RecordingFile(Path.of(args[0]))) {
+            while (file.hasMoreEvents()) {
+                report.accept(file.readEvent());
+            }
+        }
+        report.print();
+    }
+
+    void accept(RecordedEvent event) {
+        switch (event.getEventType().getName()) {
+            case "jpastudy.Session" -> {
+                sessionNanos.add(event.getDuration().toNanos());
+                maxSessionFlushes = Math.max(maxSessionFlushes, event.getInt("flushCount"));
+                maxSessionStatements = Math.max(maxSessionStatements, event.getInt("statementCount"));
+            }
+            case "jpastudy.Flush" -> {
+                flushNanos.add(event.getDuration().toNanos());
+                flushEntities.add(event.getInt("entityCount"));
+            }
+            case "jpastudy.Query" -> queries
+                    .computeIfAbsent(event.getInt("queryHash"), hash -> new QueryStat(event.getString("query")))
+                    .add(event.getInt("rowCount"), event.getLong("executionTime"));
+            case "jpastudy.LazyLoad" -> lazyLoads.merge(event.getString("target") + "  <- " + caller(event.getStackTrace()), 1L, Long::sum);
+            default -> {
+            }
+        }
+    }
+
+    void print() {
+        System.out.printf("sessions: %d, %s, max flushes/session %d, max statements/session %d%n",
+                sessionNanos.size(), percentiles(sessionNanos), maxSessionFlushes, maxSessionStatements);
+        System.out.printf("flushes: %d, %s, entities p50 %d / max %d%n",
+                flushNanos.size(), percentiles(flushNanos), percentile(flushEntities, 0.5), percentile(flushEntities, 1.0));
+
+        System.out.println("\ntop queries by total time");
+        queries.values().stream()
+                .sorted(Comparator.comparingLong((QueryStat q) -> q.totalMillis).reversed())
+                .limit(TOP)
+                .forEach(q -> System.out.printf("%8d ms %7d calls %9d rows max %5d ms  %s%n",
+                        q.totalMillis, q.count, q.rows, q.maxMillis, q.query.replaceAll("\\s+", " ")));
+
+        System.out.println("\ntop lazy loads");
+        lazyLoads.entrySet().stream()
+                .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
+                .limit(TOP)
+                .forEach(e -> System.out.printf("%8d  %s%n", e.getValue(), e.getKey()));
+    }
+
+    // Hibernate/프록시 프레임을 건너뛰고 처음 만나는 애플리케이션 코드
+    private static String caller(RecordedStackTrace stackTrace) {
+        if (stackTrace == null) {
+            return "?";
+        }
+        for (RecordedFrame frame : stackTrace.getFrames()) {
+            if (!frame.isJavaFrame()) {
+                continue;
+            }
+            String type = frame.getMethod().getType().getName();
+            if (type.startsWith("jpa.jpastudy.") && !type.startsWith("jpa.jpastudy.trace.") && !type.contains("$HibernateProxy$")) {
+                return type + "." + frame.getMethod().getName() + ":" + frame.getLineNumber();
+            }
+        }
+        return "?";
+    }
+
+    private static String percentiles(List<Long> nanos) {
+        return String.format("p50 %s / p99 %s / max %s",
+                format(percentile(nanos, 0.5)), format(percentile(nanos, 0.99)), format(percentile(nanos, 1.0)));
+    }
+
+    private static <T extends Comparable<T>> T percentile(List<T> values, double p) {
+        if (values.isEmpty()) {
+            return null;
+        }
+        List<T> sorted = new ArrayList<>(values);
+        sorted.sort(null);
+        return sorted.get(Math.max(0, (int) Math.ceil(p * sorted.size()) - 1));
+    }
+
+    private static String format(Long nanos) {
+        return nanos == null ? "-" : Duration.ofNanos(nanos).toMillis() + "ms";
+    }
+
+    private static final class QueryStat {
+
+        private final String query;
+        private long count;
+        private long rows;
+        private long totalMillis;
+        private long maxMillis;
+
+        QueryStat(String query) {
+            this.query = query == null ? "?" : query;
+        }
+
+        void add(int rowCount, long millis) {
+            count++;
+            rows += rowCount;
+            totalMillis += millis;
+            maxMillis = Math.max(maxMillis, millis);
+        }
+    }
+}
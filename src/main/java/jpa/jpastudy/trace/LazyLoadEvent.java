@@ -0,0 +1,21 @@
+package jpa.jpastudy.trace;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("jpastudy.LazyLoad")
+@Label("Hibernate Lazy Load")
+@Description("프록시/지연 컬렉션 초기화. 스택 트레이스로 어디서 트리거됐는지(예: member.getTeam().getName()) 본다")
+@Category({"JPA Study", "Hibernate"})
+class LazyLoadEvent extends Event {
+
+    @Label("Collection")
+    boolean collection;
+
+    @Label("Target")
+    @Description("엔티티 이름 또는 컬렉션 role")
+    String target;
+}
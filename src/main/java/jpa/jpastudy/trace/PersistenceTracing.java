@@ -0,0 +1,32 @@
+package jpa.jpastudy.trace;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Hibernate JFR 이벤트 on/off. 꺼져 있으면 각 훅은 volatile 읽기 한 번으로 끝난다.
+ * 켜져 있어도 JFR 녹화가 없으면 이벤트는 만들어지기만 하고 기록되지 않는다.
+ * 통계 팩토리와 SessionEventListener는 Hibernate가 직접 생성하므로 static으로 넘겨준다.
+ */
+@Component
+public class PersistenceTracing {
+
+    private static volatile boolean enabled;
+
+    @Value("${jpastudy.tracing.enabled:false}")
+    private boolean enabledProperty;
+
+    @PostConstruct
+    void init() {
+        setEnabled(enabledProperty);
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    public static void setEnabled(boolean enabled) {
+        PersistenceTracing.enabled = enabled;
+    }
+}
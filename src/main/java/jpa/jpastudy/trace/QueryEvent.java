@@ -0,0 +1,27 @@
+package jpa.jpastudy.trace;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+@Name("jpastudy.Query")
+@Label("Hibernate Query")
+@Category({"JPA Study", "Hibernate"})
+class QueryEvent extends Event {
+
+    @Label("Query Hash")
+    int queryHash;
+
+    @Label("Query")
+    String query;
+
+    @Label("Rows")
+    int rowCount;
+
+    // Hibernate 통계가 실행이 끝난 뒤 밀리초로만 알려준다. 이벤트 자체의 duration 은 0
+    @Label("Execution Time")
+    @Timespan(Timespan.MILLISECONDS)
+    long executionTime;
+}
@@ -0,0 +1,25 @@
+package jpa.jpastudy.trace;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("jpastudy.Session")
+@Label("Hibernate Session")
+@Description("세션 open 부터 close 까지")
+@Category({"JPA Study", "Hibernate"})
+@StackTrace(false)
+class SessionEvent extends Event {
+
+    @Label("Flushes")
+    int flushCount;
+
+    @Label("JDBC Statements")
+    int statementCount;
+
+    @Label("JDBC Batches")
+    int batchCount;
+}
@@ -0,0 +1,23 @@
+package jpa.jpastudy.trace;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.stat.spi.StatisticsFactory;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class TracingConfig {
+
+    // org.hibernate.stat.internal.StatisticsInitiator.STATS_BUILDER
+    private static final String STATS_FACTORY = "hibernate.stats.factory";
+
+    // 훅은 항상 설치하고 실제 기록 여부는 PersistenceTracing 플래그로 런타임에 정한다.
+    @Bean
+    public HibernatePropertiesCustomizer tracingCustomizer() {
+        return properties -> {
+            properties.put(STATS_FACTORY, (StatisticsFactory) TracingStatistics::new);
+            properties.put(AvailableSettings.AUTO_SESSION_EVENTS_LISTENER, TracingSessionListener.class.getName());
+        };
+    }
+}
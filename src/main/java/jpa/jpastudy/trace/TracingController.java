@@ -0,0 +1,23 @@
+package jpa.jpastudy.trace;
+
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+@RestController
+public class TracingController {
+
+    @GetMapping("/tracing")
+    public Map<String, Boolean> status() {
+        return Map.of("enabled", PersistenceTracing.isEnabled());
+    }
+
+    @PutMapping("/tracing")
+    public Map<String, Boolean> toggle(@RequestParam boolean enabled) {
+        PersistenceTracing.setEnabled(enabled);
+        return status();
+    }
+}
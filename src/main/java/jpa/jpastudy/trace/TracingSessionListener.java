@@ -0,0 +1,89 @@
+package jpa.jpastudy.trace;
+
+import org.hibernate.SessionEventListener;
+
+/**
+ * 세션마다 하나씩 생성된다. (hibernate.session.events.auto)
+ * 세션을 여는 시점에 트레이싱이 꺼져 있으면 그 세션은 끝까지 아무것도 기록하지 않는다.
+ */
+public class TracingSessionListener implements SessionEventListener {
+
+    private final SessionEvent session;
+    private FlushEvent flush;
+    private int flushCount;
+    private int statementCount;
+    private int batchCount;
+
+    public TracingSessionListener() {
+        if (PersistenceTracing.isEnabled()) {
+            session = new SessionEvent();
+            session.begin();
+        } else {
+            session = null;
+        }
+    }
+
+    @Override
+    public void jdbcExecuteStatementStart() {
+        statementCount++;
+    }
+
+    @Override
+    public void jdbcExecuteBatchStart() {
+        batchCount++;
+    }
+
+    @Override
+    public void flushStart() {
+        flushStart(false);
+    }
+
+    @Override
+    public void flushEnd(int numberOfEntities, int numberOfCollections) {
+        flushEnd(numberOfEntities, numberOfCollections, false);
+    }
+
+    @Override
+    public void partialFlushStart() {
+        flushStart(true);
+    }
+
+    @Override
+    public void partialFlushEnd(int numberOfEntities, int numberOfCollections) {
+        flushEnd(numberOfEntities, numberOfCollections, true);
+    }
+
+    @Override
+    public void end() {
+        if (session != null && session.shouldCommit()) {
+            session.flushCount = flushCount;
+            session.statementCount = statementCount;
+            session.batchCount = batchCount;
+            session.commit();
+        }
+    }
+
+    private void flushStart(boolean partial) {
+        if (session == null) {
+            return;
+        }
+        flushCount++;
+        flush = new FlushEvent();
+        flush.partial = partial;
+        flush.begin();
+    }
+
+    private void flushEnd(int entities, int collections, boolean partial) {
+        FlushEvent event = flush;
+        flush = null;
+        if (event == null || event.partial != partial) {
+            return;
+        }
+        event.end();
+        if (event.shouldCommit()) {
+            event.entityCount = entities;
+            event.collectionCount = collections;
+            event.commit();
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package jpa.jpastudy.trace;
+
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.stat.internal.StatisticsImpl;
+
+/**
+ * Hibernate 통계 훅에서 쿼리 실행과 지연 로딩 이벤트를 만든다.
+ * Hibernate는 isStatisticsEnabled()가 true일 때만 훅을 부르므로, 트레이싱이 꺼져 있으면 호출 자체가 없다.
+ * 트레이싱 중에는 다른 통계 카운터도 함께 올라간다. (hibernate.generate_statistics 와 무관하게)
+ */
+public class TracingStatistics extends StatisticsImpl {
+
+    private static final int MAX_QUERY_LENGTH = 1000;
+
+    public TracingStatistics(SessionFactoryImplementor sessionFactory) {
+        super(sessionFactory);
+    }
+
+    @Override
+    public boolean isStatisticsEnabled() {
+        return PersistenceTracing.isEnabled() || super.isStatisticsEnabled();
+    }
+
+    @Override
+    public void queryExecuted(String hql, int rows, long time) {
+        if (super.isStatisticsEnabled()) {
+            super.queryExecuted(hql, rows, time);
+        }
+        if (!PersistenceTracing.isEnabled() || hql == null) {
+            return;
+        }
+        QueryEvent event = new QueryEvent();
+        if (event.shouldCommit()) {
+            event.queryHash = hql.hashCode();
+            event.query = hql.length() > MAX_QUERY_LENGTH ? hql.substring(0, MAX_QUERY_LENGTH) : hql;
+            event.rowCount = rows;
+            event.executionTime = time;
+            event.commit();
+        }
+    }
+
+    @Override
+    public void fetchEntity(String entityName) {
+        if (super.isStatisticsEnabled()) {
+            super.fetchEntity(entityName);
+        }
+        lazyLoad(false, entityName);
+    }
+
+    @Override
+    public void fetchCollection(String role) {
+        if (super.isStatisticsEnabled()) {
+            super.fetchCollection(role);
+        }
+        lazyLoad(true, role);
+    }
+
+    private static void lazyLoad(boolean collection, String target) {
+        if (!PersistenceTracing.isEnabled()) {
+            return;
+        }
+        LazyLoadEvent event = new LazyLoadEvent();
+        if (event.shouldCommit()) {
+            event.collection = collection;
+            event.target = target;
+            event.commit();
+        }
+    }
+}
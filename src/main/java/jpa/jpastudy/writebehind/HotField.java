@@ -0,0 +1,66 @@
+package jpa.jpastudy.writebehind;
+
+import jpa.jpastudy.jpql.MemberTypeConverter;
+import jpa.jpastudy.outbox.OutboxWriter;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Collections;
+
+/**
+ * write-behind 로 모아서 쓰는 필드. SQL 은 이 값으로만 만들어지므로 테이블/컬럼명은 여기서만 관리한다.
+ * OUTBOX payload 는 OutboxWriter 가 엔티티로 만드는 것과 같은 형식으로, 반영 직후의 행을 다시 읽어 만든다.
+ */
+public enum HotField {
+    MEMBER_AGE("`member`", "age", "member", "Member", "id, username, age, team_id, type") {
+        @Override
+        String payload(ResultSet rs) throws SQLException {
+            return OutboxWriter.memberPayload(rs.getString("username"), rs.getInt("age"),
+                    rs.getObject("team_id", Long.class), MEMBER_TYPES.convertToEntityAttribute(rs.getObject("type", Integer.class)));
+        }
+    },
+    TEAM_AGE("team", "age", "team", "Team", "id, name, age") {
+        @Override
+        String payload(ResultSet rs) throws SQLException {
+            return OutboxWriter.teamPayload(rs.getString("name"), rs.getInt("age"));
+        }
+    };
+
+    private static final MemberTypeConverter MEMBER_TYPES = new MemberTypeConverter();
+
+    private final String table;
+    private final String column;
+    private final String versionTable;
+    private final String aggregateType;
+    private final String payloadColumns;
+
+    HotField(String table, String column, String versionTable, String aggregateType, String payloadColumns) {
+        this.table = table;
+        this.column = column;
+        this.versionTable = versionTable;
+        this.aggregateType = aggregateType;
+        this.payloadColumns = payloadColumns;
+    }
+
+    String setSql() {
+        return "update " + table + " set " + column + " = ? where id = ?";
+    }
+
+    String addSql() {
+        return "update " + table + " set " + column + " = " + column + " + ? where id = ?";
+    }
+
+    String selectSql(int ids) {
+        return "select " + payloadColumns + " from " + table + " where id in (" + String.join(", ", Collections.nCopies(ids, "?")) + ")";
+    }
+
+    String versionTable() {
+        return versionTable;
+    }
+
+    String aggregateType() {
+        return aggregateType;
+    }
+
+    abstract String payload(ResultSet rs) throws SQLException;
+}
@@ -0,0 +1,8 @@
+package jpa.jpastudy.writebehind;
+
+public enum MergeMode {
+    // 마지막 값으로 덮어쓴다.
+    LAST_WRITE_WINS,
+    // 증감량을 더한다.
+    ADDITIVE
+}
@@ -0,0 +1,15 @@
+package jpa.jpastudy.writebehind;
+
+/**
+ * 한 행에 대해 아직 DB 에 쓰지 않은 변경. mode 가 LAST_WRITE_WINS 면 value 는 최종값, ADDITIVE 면 누적 증감량이다.
+ */
+record PendingWrite(MergeMode mode, int value) {
+
+    // 먼저 온 변경(this) 뒤에 later 가 왔을 때의 결과
+    PendingWrite then(PendingWrite later) {
+        if (later.mode == MergeMode.LAST_WRITE_WINS) {
+            return later;
+        }
+        return new PendingWrite(mode, value + later.value);
+    }
+}
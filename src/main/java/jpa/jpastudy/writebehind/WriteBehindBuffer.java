@@ -0,0 +1,258 @@
+package jpa.jpastudy.writebehind;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jpa.jpastudy.cache.TableVersions;
+import jpa.jpastudy.index.MemberIndexSynchronizer;
+import jpa.jpastudy.outbox.OutboxWriter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 자주 바뀌는 필드(Member.age, Team.age)의 변경을 메모리에 모아 두었다가 주기적으로/일정 건수가 쌓이면 JDBC batch 로 한꺼번에 반영한다.
+ * 같은 행에 대한 변경은 MergeMode 에 따라 합쳐져 한 번만 쓰인다. 반영한 행은 같은 트랜잭션에서 OUTBOX 에 UPDATE 로 남긴다.
+ * 모든 변경은 먼저 로컬 저널에 기록하고, 기동 시 남아 있는 저널을 다시 반영한다.
+ * 반영한 세그먼트 번호(워터마크)를 같은 DB 트랜잭션에서 write_behind_watermark 에 남기고, 재기동 시 그 이하 세그먼트는 건너뛴다.
+ * 그래서 DB 커밋 후 저널 삭제 전에 죽어도 ADDITIVE 변경이 두 번 더해지지 않는다.
+ * DB 를 직접 갱신하므로 이미 로딩된 엔티티(영속성 컨텍스트)에는 반영되지 않는다.
+ */
+@Slf4j
+@Component
+public class WriteBehindBuffer {
+
+    // OUTBOX payload 를 만들려고 다시 읽을 때 in 절 하나에 넣는 id 수
+    private static final int SELECT_CHUNK = 500;
+
+    private static final String WATERMARK_UPDATE = "update write_behind_watermark set flushed_segment = ? where journal_id = ?";
+    private static final String WATERMARK_INSERT = "insert into write_behind_watermark (journal_id, flushed_segment) values (?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final TableVersions tableVersions;
+    private final MemberIndexSynchronizer memberIndexSynchronizer;
+    private final WriteJournal journal;
+    private final String journalId;
+    private final int flushThreshold;
+
+    // 업데이트는 read lock(여러 스레드 동시), 버퍼 교체는 write lock. 저널 세그먼트와 버퍼 내용이 항상 같이 넘어가게 한다.
+    private final ReentrantReadWriteLock swapLock = new ReentrantReadWriteLock();
+    private final Object flushLock = new Object();
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+    private final ExecutorService flusher = Executors.newSingleThreadExecutor(r -> new Thread(r, "write-behind-flusher"));
+
+    private volatile Map<HotField, ConcurrentHashMap<Long, PendingWrite>> buffer = newBuffer();
+    private final AtomicInteger pendingRows = new AtomicInteger();
+
+    public WriteBehindBuffer(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+                             TableVersions tableVersions, MemberIndexSynchronizer memberIndexSynchronizer,
+                             @Value("${jpastudy.write-behind.journal-dir:write-behind}") String journalDir,
+                             @Value("${jpastudy.write-behind.journal-id:}") String journalId,
+                             @Value("${jpastudy.write-behind.fsync:always}") String fsync,
+                             @Value("${jpastudy.write-behind.flush-threshold:1000}") int flushThreshold) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.tableVersions = tableVersions;
+        this.memberIndexSynchronizer = memberIndexSynchronizer;
+        this.journal = new WriteJournal(Path.of(journalDir), WriteJournal.FsyncPolicy.of(fsync));
+        // 인스턴스마다 저널 디렉터리가 다르므로 지정하지 않으면 절대 경로로 구분한다.
+        this.journalId = journalId.isBlank() ? Path.of(journalDir).toAbsolutePath().normalize().toString() : journalId;
+        this.flushThreshold = flushThreshold;
+    }
+
+    @PostConstruct
+    void recover() {
+        long flushed = flushedSegment();
+        journal.startAfter(flushed);
+        journal.deleteUpTo(flushed);
+        journal.replay(flushed, entry -> merge(entry.field(), entry.id(), new PendingWrite(entry.mode(), entry.value())));
+    }
+
+    @PreDestroy
+    void shutdown() {
+        flusher.shutdown();
+        flush();
+        journal.close();
+    }
+
+    public void setMemberAge(long memberId, int age) {
+        update(HotField.MEMBER_AGE, memberId, MergeMode.LAST_WRITE_WINS, age);
+    }
+
+    public void addMemberAge(long memberId, int delta) {
+        update(HotField.MEMBER_AGE, memberId, MergeMode.ADDITIVE, delta);
+    }
+
+    public void setTeamAge(long teamId, int age) {
+        update(HotField.TEAM_AGE, teamId, MergeMode.LAST_WRITE_WINS, age);
+    }
+
+    public void addTeamAge(long teamId, int delta) {
+        update(HotField.TEAM_AGE, teamId, MergeMode.ADDITIVE, delta);
+    }
+
+    public void update(HotField field, long id, MergeMode mode, int value) {
+        swapLock.readLock().lock();
+        try {
+            journal.append(field, id, mode, value);
+            merge(field, id, new PendingWrite(mode, value));
+        } finally {
+            swapLock.readLock().unlock();
+        }
+        if (pendingRows.get() >= flushThreshold && flushScheduled.compareAndSet(false, true)) {
+            flusher.execute(() -> {
+                flushScheduled.set(false);
+                flush();
+            });
+        }
+    }
+
+    public int pendingRows() {
+        return pendingRows.get();
+    }
+
+    @Scheduled(fixedDelayString = "${jpastudy.write-behind.flush-interval-ms:200}")
+    public void flush() {
+        synchronized (flushLock) {
+            Map<HotField, ConcurrentHashMap<Long, PendingWrite>> drained;
+            long segment;
+            swapLock.writeLock().lock();
+            try {
+                if (buffer.values().stream().allMatch(Map::isEmpty)) {
+                    return;
+                }
+                drained = buffer;
+                buffer = newBuffer();
+                pendingRows.set(0);
+                segment = journal.roll();
+            } finally {
+                swapLock.writeLock().unlock();
+            }
+
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    drained.forEach((field, rows) -> {
+                        write(field, rows);
+                        writeOutbox(field, rows);
+                    });
+                    markFlushed(segment);
+                });
+            } catch (RuntimeException e) {
+                log.warn("write-behind flush 실패, 다음 주기에 다시 시도합니다.", e);
+                restore(drained);
+                return;
+            }
+            journal.deleteUpTo(segment);
+            afterFlush(drained);
+        }
+    }
+
+    private void merge(HotField field, long id, PendingWrite write) {
+        boolean[] created = new boolean[1];
+        buffer.get(field).compute(id, (key, earlier) -> {
+            created[0] = earlier == null;
+            return earlier == null ? write : earlier.then(write);
+        });
+        if (created[0]) {
+            pendingRows.incrementAndGet();
+        }
+    }
+
+    // id 순으로 써서 다른 트랜잭션과 락 순서를 맞춘다.
+    private void write(HotField field, Map<Long, PendingWrite> rows) {
+        List<Object[]> sets = new ArrayList<>();
+        List<Object[]> adds = new ArrayList<>();
+        new TreeMap<>(rows).forEach((id, write) ->
+                (write.mode() == MergeMode.LAST_WRITE_WINS ? sets : adds).add(new Object[]{write.value(), id}));
+        if (!sets.isEmpty()) {
+            jdbcTemplate.batchUpdate(field.setSql(), sets);
+        }
+        if (!adds.isEmpty()) {
+            jdbcTemplate.batchUpdate(field.addSql(), adds);
+        }
+    }
+
+    private long flushedSegment() {
+        List<Long> flushed = jdbcTemplate.queryForList(
+                "select flushed_segment from write_behind_watermark where journal_id = ?", Long.class, journalId);
+        return flushed.isEmpty() ? 0 : flushed.get(0);
+    }
+
+    private void markFlushed(long segment) {
+        if (jdbcTemplate.update(WATERMARK_UPDATE, segment, journalId) == 0) {
+            jdbcTemplate.update(WATERMARK_INSERT, journalId, segment);
+        }
+    }
+
+    // 반영된 뒤의 행을 같은 트랜잭션에서 다시 읽어 OUTBOX 에 넣는다. 롤백되면 같이 롤백된다.
+    private void writeOutbox(HotField field, Map<Long, PendingWrite> rows) {
+        if (rows.isEmpty()) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        List<Long> ids = new ArrayList<>(new TreeMap<>(rows).keySet());
+        List<OutboxWriter.Change> changes = new ArrayList<>(ids.size());
+        for (int from = 0; from < ids.size(); from += SELECT_CHUNK) {
+            List<Long> chunk = ids.subList(from, Math.min(from + SELECT_CHUNK, ids.size()));
+            changes.addAll(jdbcTemplate.query(field.selectSql(chunk.size()), (rs, rowNum) -> new OutboxWriter.Change(
+                    field.aggregateType(), rs.getLong("id"), "UPDATE", field.payload(rs), now), chunk.toArray()));
+        }
+        OutboxWriter.insert(jdbcTemplate, changes);
+    }
+
+    // 실패한 배치는 그 사이 들어온 변경보다 앞선 것으로 보고 다시 합친다. 저널 세그먼트는 지우지 않았으므로 그대로 남는다.
+    private void restore(Map<HotField, ConcurrentHashMap<Long, PendingWrite>> drained) {
+        swapLock.readLock().lock();
+        try {
+            drained.forEach((field, rows) -> rows.forEach((id, failed) -> {
+                boolean[] created = new boolean[1];
+                buffer.get(field).compute(id, (key, newer) -> {
+                    created[0] = newer == null;
+                    return newer == null ? failed : failed.then(newer);
+                });
+                if (created[0]) {
+                    pendingRows.incrementAndGet();
+                }
+            }));
+        } finally {
+            swapLock.readLock().unlock();
+        }
+    }
+
+    private void afterFlush(Map<HotField, ConcurrentHashMap<Long, PendingWrite>> flushed) {
+        flushed.forEach((field, rows) -> {
+            if (!rows.isEmpty()) {
+                tableVersions.bump(field.versionTable());
+            }
+        });
+        Map<Long, PendingWrite> members = flushed.get(HotField.MEMBER_AGE);
+        if (!members.isEmpty()) {
+            memberIndexSynchronizer.refresh(members.keySet());
+        }
+    }
+
+    private static Map<HotField, ConcurrentHashMap<Long, PendingWrite>> newBuffer() {
+        Map<HotField, ConcurrentHashMap<Long, PendingWrite>> buffer = new EnumMap<>(HotField.class);
+        for (HotField field : HotField.values()) {
+            buffer.put(field, new ConcurrentHashMap<>());
+        }
+        return buffer;
+    }
+}
@@ -0,0 +1,211 @@
+package jpa.jpastudy.writebehind;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * 로컬 append-only 저널. 세그먼트 파일(journal-번호.log) 단위로 나눠 쓰고, DB 반영이 끝난 세그먼트는 지운다.
+ * 한 줄 형식: FIELD id MODE value
+ * append() 는 자기 줄이 파일 채널에 쓰인 뒤 반환하므로 프로세스가 죽어도 남는다.
+ * 디스크 동기화는 FsyncPolicy 로 정한다. ALWAYS 면 묶음을 쓸 때마다 fsync 한 뒤 반환하므로 OS 가 죽어도 남고,
+ * ON_ROLL 이면 roll() 때만 fsync 하므로 OS 가 죽으면 마지막 세그먼트의 일부를 잃을 수 있다.
+ * 그룹 커밋: 줄은 먼저 메모리 버퍼에 모으고, 채널 락을 잡은 스레드가 그때까지 쌓인 줄을 한 번의 write 로 쓴다.
+ * 한 스레드가 쓰는 동안 다른 스레드들의 줄이 쌓이므로 동시 호출이 많을수록 write 횟수가 줄어든다.
+ */
+class WriteJournal {
+
+    enum FsyncPolicy {
+        ALWAYS,
+        ON_ROLL;
+
+        // 설정 값(always / on-roll)
+        static FsyncPolicy of(String value) {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT).replace('-', '_'));
+        }
+    }
+
+    private final Path directory;
+    private final FsyncPolicy fsync;
+    private FileChannel channel;
+    private long segment;
+
+    // pending / appended 는 pendingLock, 채널과 taken / failed 는 this 로 보호한다.
+    private final Object pendingLock = new Object();
+    private final ByteArrayOutputStream pending = new ByteArrayOutputStream();
+    private long appended;
+    // 버퍼에서 꺼내 쓰기를 시도한 마지막 번호
+    private long taken;
+    // 쓰기에 실패한 번호 구간 (시작 -> 끝)
+    private final NavigableMap<Long, Long> failed = new TreeMap<>();
+
+    WriteJournal(Path directory, FsyncPolicy fsync) {
+        this.directory = directory;
+        this.fsync = fsync;
+    }
+
+    void append(HotField field, long id, MergeMode mode, int value) {
+        byte[] line = (field + " " + id + " " + mode + " " + value + "\n").getBytes(StandardCharsets.US_ASCII);
+        long sequence;
+        synchronized (pendingLock) {
+            pending.writeBytes(line);
+            sequence = ++appended;
+        }
+        synchronized (this) {
+            Map.Entry<Long, Long> failedRange = failed.floorEntry(sequence);
+            if (failedRange != null && sequence <= failedRange.getValue()) {
+                throw new UncheckedIOException(new IOException("저널 기록 실패"));
+            }
+            if (sequence > taken) {
+                writePending();
+            }
+        }
+    }
+
+    // 쌓인 줄을 한 번에 쓴다. 실패하면 그 묶음의 호출자 모두 예외를 받고 묶음은 버려진다.
+    private void writePending() {
+        byte[] batch;
+        long from = taken + 1;
+        synchronized (pendingLock) {
+            batch = pending.toByteArray();
+            pending.reset();
+            taken = appended;
+        }
+        if (batch.length == 0) {
+            return;
+        }
+        try {
+            if (channel == null) {
+                open(lastSegment() + 1);
+            }
+            ByteBuffer buffer = ByteBuffer.wrap(batch);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            if (fsync == FsyncPolicy.ALWAYS) {
+                channel.force(false);
+            }
+        } catch (IOException e) {
+            failed.put(from, taken);
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * 현재 세그먼트를 닫고 번호를 반환한다. 이후 기록은 새 세그먼트로 간다.
+     */
+    synchronized long roll() {
+        writePending();
+        try {
+            long closed = channel == null ? lastSegment() : segment;
+            if (channel != null) {
+                channel.force(false);
+                channel.close();
+                channel = null;
+            }
+            return closed;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * 이후 새로 여는 세그먼트 번호가 number 보다 크게 한다. 파일이 모두 지워진 뒤 재기동해도 DB 워터마크 아래 번호를 다시 쓰지 않게 한다.
+     */
+    synchronized void startAfter(long number) {
+        if (channel == null) {
+            segment = Math.max(segment, number);
+        }
+    }
+
+    // upTo 이하 번호의 세그먼트를 지운다.
+    synchronized void deleteUpTo(long upTo) {
+        for (Path path : segments()) {
+            if (segmentNumber(path) <= upTo) {
+                try {
+                    Files.deleteIfExists(path);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        }
+    }
+
+    // after 보다 큰 번호의 세그먼트만 다시 읽는다.
+    synchronized void replay(long after, Consumer<Entry> consumer) {
+        for (Path path : segments()) {
+            if (segmentNumber(path) <= after) {
+                continue;
+            }
+            try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.US_ASCII)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    String[] parts = line.split(" ");
+                    // 마지막 줄이 쓰다 만 상태일 수 있다.
+                    if (parts.length != 4) {
+                        continue;
+                    }
+                    consumer.accept(new Entry(HotField.valueOf(parts[0]), Long.parseLong(parts[1]),
+                            MergeMode.valueOf(parts[2]), Integer.parseInt(parts[3])));
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    synchronized void close() {
+        roll();
+    }
+
+    private void open(long number) throws IOException {
+        Files.createDirectories(directory);
+        segment = number;
+        channel = FileChannel.open(directory.resolve("journal-" + number + ".log"),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    private long lastSegment() {
+        List<Path> segments = segments();
+        return segments.isEmpty() ? Math.max(segment, 0) : Math.max(segment, segmentNumber(segments.get(segments.size() - 1)));
+    }
+
+    private List<Path> segments() {
+        if (!Files.isDirectory(directory)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            List<Path> segments = new ArrayList<>(files
+                    .filter(p -> p.getFileName().toString().matches("journal-\\d+\\.log"))
+                    .toList());
+            segments.sort(Comparator.comparingLong(WriteJournal::segmentNumber));
+            return segments;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static long segmentNumber(Path path) {
+        String name = path.getFileName().toString();
+        return Long.parseLong(name.substring("journal-".length(), name.length() - ".log".length()));
+    }
+
+    record Entry(HotField field, long id, MergeMode mode, int value) {
+    }
+}
@@ -0,0 +1,59 @@
+-- member 는 MySQL 예약어라 backtick 으로 감싼다. (H2 는 MODE=MySQL 로 실행)
+create table team (
+    id bigint not null,
+    age integer not null,
+    name varchar(255),
+    primary key (id)
+);
+
+create table `member` (
+    id bigint not null,
+    age integer not null,
+    team_id bigint,
+    type varchar(255),
+    username varchar(255),
+    primary key (id)
+);
+
+create table product (
+    id bigint not null,
+    name varchar(255),
+    price integer not null,
+    stock_amount integer not null,
+    version bigint not null,
+    primary key (id)
+);
+
+create table item (
+    dtype varchar(31) not null,
+    item_id bigint not null,
+    name varchar(255),
+    price integer not null,
+    stock_quantity integer not null,
+    version bigint not null,
+    author varchar(255),
+    isbn varchar(255),
+    primary key (item_id)
+);
+
+create table orders (
+    id bigint not null,
+    city varchar(255),
+    street varchar(255),
+    zipcode varchar(255),
+    product_id bigint,
+    primary key (id)
+);
+
+create table outbox (
+    id bigint not null auto_increment,
+    aggregate_type varchar(255),
+    aggregate_id bigint,
+    change_type varchar(255),
+    payload varchar(1000),
+    created_at datetime(6),
+    primary key (id)
+);
+
+alter table `member` add constraint fk_member_team foreign key (team_id) references team (id);
+alter table orders add constraint fk_orders_product foreign key (product_id) references product (id);
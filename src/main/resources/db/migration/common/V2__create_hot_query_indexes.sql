@@ -0,0 +1,10 @@
+-- Named_쿼리 (Member.findByUsername)
+create index idx_member_username on `member` (username);
+-- 팀별 회원 + 나이 조건 (where m.team.id = :teamId and m.age > 10)
+create index idx_member_team_age on `member` (team_id, age);
+-- 나이 범위 조회 후 id 정렬 / 조인
+create index idx_member_age_id on `member` (age, id);
+-- type(i) = Book 과 가격 조건
+create index idx_item_dtype_price on item (dtype, price);
+-- 상품별 주문 조회, 조인
+create index idx_orders_product on orders (product_id);
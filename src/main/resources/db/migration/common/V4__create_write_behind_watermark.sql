@@ -0,0 +1,6 @@
+-- write-behind 저널별로 DB 에 반영이 끝난 마지막 세그먼트 번호. 반영과 같은 트랜잭션에서 갱신한다.
+create table write_behind_watermark (
+    journal_id varchar(255) not null,
+    flushed_segment bigint not null,
+    primary key (journal_id)
+);
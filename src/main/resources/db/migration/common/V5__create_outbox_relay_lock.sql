@@ -0,0 +1,7 @@
+-- OUTBOX 릴레이 리더 행. 배치를 전달하는 동안 이 행을 잠가 여러 인스턴스 중 하나만 전달하게 한다.
+create table outbox_relay_lock (
+    id int not null,
+    primary key (id)
+);
+
+insert into outbox_relay_lock (id) values (1);
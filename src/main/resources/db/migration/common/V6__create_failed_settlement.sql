@@ -0,0 +1,10 @@
+-- 주문은 커밋됐지만 재고에 반영하지 못한 정산. 주문 단위로 남기고, 대사(reconcile)로 반영하면 지운다.
+create table failed_settlement (
+    order_id bigint not null,
+    product_id bigint not null,
+    reason varchar(1000),
+    created_at datetime(6),
+    primary key (order_id)
+);
+
+create index idx_failed_settlement_product on failed_settlement (product_id);
@@ -0,0 +1,5 @@
+create sequence team_seq start with 1 increment by 50;
+create sequence member_seq start with 1 increment by 50;
+create sequence product_seq start with 1 increment by 50;
+create sequence item_seq start with 1 increment by 50;
+create sequence order_seq start with 1 increment by 50;
@@ -0,0 +1,12 @@
+alter table `member` add column type_code tinyint;
+update `member` set type_code = case type when 'ADMIN' then 1 when 'USER' then 2 end;
+alter table `member` drop column type;
+alter table `member` alter column type_code rename to type;
+
+alter table item add column dtype_code tinyint;
+update item set dtype_code = case dtype when 'BB' then 1 end;
+drop index idx_item_dtype_price;
+alter table item drop column dtype;
+alter table item alter column dtype_code rename to dtype;
+alter table item alter column dtype set not null;
+create index idx_item_dtype_price on item (dtype, price);
@@ -0,0 +1,11 @@
+-- MySQL 에는 시퀀스가 없어서 Hibernate 가 테이블로 흉내낸다. (allocationSize 50, pooled optimizer)
+create table team_seq (next_val bigint);
+insert into team_seq values (1);
+create table member_seq (next_val bigint);
+insert into member_seq values (1);
+create table product_seq (next_val bigint);
+insert into product_seq values (1);
+create table item_seq (next_val bigint);
+insert into item_seq values (1);
+create table order_seq (next_val bigint);
+insert into order_seq values (1);
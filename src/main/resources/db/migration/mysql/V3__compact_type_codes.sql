@@ -0,0 +1,12 @@
+-- Member.type: 'ADMIN'/'USER' 문자열 -> MemberType 코드(tinyint)
+alter table `member` add column type_code tinyint;
+update `member` set type_code = case type when 'ADMIN' then 1 when 'USER' then 2 end;
+alter table `member` drop column type, rename column type_code to type;
+
+-- Item.dtype: 'BB' -> ItemTypes 코드(tinyint). 모르는 값이 있으면 not null 제약에서 실패한다.
+alter table item add column dtype_code tinyint;
+update item set dtype_code = case dtype when 'BB' then 1 end;
+alter table item drop index idx_item_dtype_price;
+alter table item drop column dtype, rename column dtype_code to dtype;
+alter table item modify dtype tinyint not null;
+create index idx_item_dtype_price on item (dtype, price);
@@ -0,0 +1,175 @@
+package jpa.jpastudy.cache;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.PersistenceContext;
+import jpa.jpastudy.jpql.Member;
+import jpa.jpastudy.jpql.Team;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// 무효화는 커밋 후에 일어나므로 테스트 트랜잭션 대신 TransactionTemplate 으로 커밋 경계를 만든다.
+@SpringBootTest
+public class QueryResultCacheTest {
+
+    @PersistenceContext
+    EntityManager em;
+
+    @Autowired
+    EntityManagerFactory emf;
+
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    @Autowired
+    QueryResultCache queryResultCache;
+
+    @Test
+    public void 집계_쿼리_캐시와_무효화() {
+        persistMember("cache-1", 10, null);
+
+        String query = "select avg(m.age) from Member m where m.username like 'cache-%'";
+        List<Double> first = queryResultCache.getResultList(query, Double.class);
+        // 공백이 달라도 같은 쿼리로 본다.
+        List<Double> second = queryResultCache.getResultList("select  avg(m.age)\n from Member m where m.username like 'cache-%'", Double.class);
+
+        assertThat(second).isEqualTo(first);
+        QueryResultCache.QueryStats stats = queryResultCache.stats().get(query);
+        assertThat(stats.getHits().sum()).isEqualTo(1);
+
+        // member 테이블에 insert 가 커밋되면 캐시가 무효화된다.
+        persistMember("cache-2", 30, null);
+        assertThat(queryResultCache.getResultList(query, Double.class)).containsExactly(20.0);
+        assertThat(stats.getInvalidations().sum()).isEqualTo(1);
+
+        // 벌크 연산도 무효화한다.
+        transactionTemplate.executeWithoutResult(status ->
+                em.createQuery("update Member m set m.age = m.age + 1 where m.username like 'cache-%'").executeUpdate());
+        assertThat(queryResultCache.getResultList(query, Double.class)).containsExactly(21.0);
+        assertThat(stats.getInvalidations().sum()).isEqualTo(2);
+    }
+
+    @Test
+    public void 커밋되지_않은_쓰기는_캐시에_들어가지_않는다() {
+        String query = "select count(m) from Member m where m.username = 'cache-pending'";
+        assertThat(queryResultCache.getResultList(query, Long.class)).containsExactly(0L);
+
+        transactionTemplate.executeWithoutResult(status -> {
+            Member member = new Member();
+            member.setUsername("cache-pending");
+            em.persist(member);
+            em.flush();
+
+            // 내 트랜잭션에서는 내 변경이 보이지만 캐시는 거치지 않는다.
+            assertThat(queryResultCache.getResultList(query, Long.class)).containsExactly(1L);
+            status.setRollbackOnly();
+        });
+
+        assertThat(queryResultCache.stats().get(query).getBypasses().sum()).isEqualTo(1);
+        assertThat(queryResultCache.getResultList(query, Long.class)).containsExactly(0L);
+    }
+
+    @Test
+    public void flush_전의_변경이_있으면_캐시를_거치지_않는다() {
+        String query = "select count(m) from Member m where m.username = 'cache-unflushed'";
+        assertThat(queryResultCache.getResultList(query, Long.class)).containsExactly(0L);
+        assertThat(queryResultCache.getResultList(query, Long.class)).containsExactly(0L);
+
+        transactionTemplate.executeWithoutResult(status -> {
+            Member member = new Member();
+            member.setUsername("cache-unflushed");
+            em.persist(member);
+
+            // 캐시 항목이 있어도 AUTO flush 가 일어나 내 변경이 보여야 한다.
+            assertThat(queryResultCache.getResultList(query, Long.class)).containsExactly(1L);
+            status.setRollbackOnly();
+        });
+
+        assertThat(queryResultCache.stats().get(query).getBypasses().sum()).isEqualTo(1);
+    }
+
+    @Test
+    public void 결과_타입이_다르면_다른_항목() {
+        String query = "select count(m) from Member m where m.username = 'cache-type'";
+
+        assertThat(queryResultCache.getResultList(query, Long.class)).containsExactly(0L);
+        assertThat(queryResultCache.getResultList(query, Object.class)).containsExactly(0L);
+
+        assertThat(queryResultCache.stats().get(query).getMisses().sum()).isEqualTo(2);
+    }
+
+    @Test
+    public void 경로로_참조한_테이블도_의존성에_포함된다() {
+        Team team = transactionTemplate.execute(status -> {
+            Team t = new Team();
+            t.setName("cache-team");
+            em.persist(t);
+            return t;
+        });
+        persistMember("cache-path", 10, team);
+
+        String query = "select count(m) from Member m where m.team.name = :name";
+        Map<String, String> params = Map.of("name", "cache-team");
+        assertThat(queryResultCache.getResultList(query, Long.class, params)).containsExactly(1L);
+        assertThat(queryResultCache.dependencies(query)).contains("member", "team");
+
+        transactionTemplate.executeWithoutResult(status -> em.find(Team.class, team.getId()).setName("cache-renamed"));
+
+        assertThat(queryResultCache.getResultList(query, Long.class, params)).containsExactly(0L);
+        assertThat(queryResultCache.stats().get(query).getInvalidations().sum()).isEqualTo(1);
+    }
+
+    @Test
+    public void 스프링_밖의_세션도_커밋_후_무효화한다() {
+        String query = "select count(m) from Member m where m.username = 'cache-outside'";
+        assertThat(queryResultCache.getResultList(query, Long.class)).containsExactly(0L);
+
+        // 샤드처럼 EntityManager 와 트랜잭션을 직접 관리한다.
+        EntityManager other = emf.createEntityManager();
+        try {
+            other.getTransaction().begin();
+            Member member = new Member();
+            member.setUsername("cache-outside");
+            other.persist(member);
+            other.getTransaction().commit();
+        } finally {
+            other.close();
+        }
+
+        assertThat(queryResultCache.getResultList(query, Long.class)).containsExactly(1L);
+        assertThat(queryResultCache.stats().get(query).getInvalidations().sum()).isEqualTo(1);
+    }
+
+    @Test
+    public void 파라미터가_다르면_다른_항목() {
+        String query = "select coalesce(m.username, '이름 없는 회원') from Member m where m.age > :age";
+
+        queryResultCache.getResultList(query, String.class, Map.of("age", 10));
+        queryResultCache.getResultList(query, String.class, Map.of("age", 20));
+
+        assertThat(queryResultCache.stats().get(query).getMisses().sum()).isEqualTo(2);
+    }
+
+    @Test
+    public void 쿼리_정규화() {
+        assertThat(QueryResultCache.normalize("  select  m\n from Member m where m.username = 'a  b' "))
+                .isEqualTo("select m from Member m where m.username = 'a  b'");
+    }
+
+    private void persistMember(String username, int age, Team team) {
+        transactionTemplate.executeWithoutResult(status -> {
+            Member member = new Member();
+            member.setUsername(username);
+            member.setAge(age);
+            member.setTeam(team);
+            em.persist(member);
+        });
+    }
+}
@@ -0,0 +1,73 @@
+package jpa.jpastudy.code;
+
+import jpa.jpastudy.jpql.Book;
+import jpa.jpastudy.jpql.ItemType;
+import jpa.jpastudy.jpql.ItemTypes;
+import jpa.jpastudy.jpql.MemberType;
+import jpa.jpastudy.jpql.MemberTypeConverter;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class CodeRegistryTest {
+
+    enum Duplicated implements CodedEnum {
+        A(1), B(1);
+
+        private final int code;
+
+        Duplicated(int code) {
+            this.code = code;
+        }
+
+        @Override
+        public int getCode() {
+            return code;
+        }
+    }
+
+    @RetiredCodes(2)
+    enum ReusesRetired implements CodedEnum {
+        A(1), C(2);
+
+        private final int code;
+
+        ReusesRetired(int code) {
+            this.code = code;
+        }
+
+        @Override
+        public int getCode() {
+            return code;
+        }
+    }
+
+    @Test
+    public void 코드_변환() {
+        MemberTypeConverter converter = new MemberTypeConverter();
+
+        assertThat(converter.convertToDatabaseColumn(MemberType.ADMIN)).isEqualTo(1);
+        assertThat(converter.convertToEntityAttribute(2)).isEqualTo(MemberType.USER);
+        assertThat(converter.convertToEntityAttribute(null)).isNull();
+        assertThatThrownBy(() -> converter.convertToEntityAttribute(99)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void 중복_코드는_거부() {
+        assertThatThrownBy(() -> CodeRegistry.register(Duplicated.class)).isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    public void 퇴역_코드_재사용은_거부() {
+        assertThatThrownBy(() -> CodeRegistry.register(ReusesRetired.class)).isInstanceOf(IllegalStateException.class);
+    }
+
+    // 엔티티 매핑까지 맞춰 보는 검사는 기동 시 ItemTypeCheck 가 한다.
+    @Test
+    public void Item_타입_코드_등록() {
+        assertThat(CodeRegistry.register(ItemType.class)).containsEntry(1, ItemType.BOOK);
+        assertThat(ItemType.BOOK.getEntityClass()).isEqualTo(Book.class);
+        assertThat(Integer.parseInt(ItemTypes.BOOK)).isEqualTo(ItemType.BOOK.getCode());
+    }
+}
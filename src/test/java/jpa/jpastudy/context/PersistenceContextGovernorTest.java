@@ -0,0 +1,56 @@
+package jpa.jpastudy.context;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jpa.jpastudy.jpql.Member;
+import jpa.jpastudy.jpql.Team;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.Rollback;
+import org.springframework.transaction.annotation.Transactional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "jpastudy.context-governor.max-entities=10")
+@Transactional
+@Rollback(value = false)
+public class PersistenceContextGovernorTest {
+
+    @PersistenceContext
+    EntityManager em;
+
+    @Autowired
+    PersistenceContextGovernor governor;
+
+    @Test
+    public void 배치_중에도_영속성_컨텍스트가_커지지_않는다() {
+        Team team = new Team();
+        team.setName("배치팀");
+        em.persist(team);
+        governor.pin(em, team);
+
+        int maxManaged = 0;
+        for (int i = 0; i < 100; i++) {
+            Member member = new Member();
+            member.setUsername("batch" + i);
+            member.setTeam(team);
+            em.persist(member);
+
+            governor.checkpoint(em);
+            maxManaged = Math.max(maxManaged, em.unwrap(SessionImplementor.class).getPersistenceContextInternal().getNumberOfManagedEntities());
+        }
+
+        assertThat(maxManaged).isLessThanOrEqualTo(10);
+        // pin 한 팀은 계속 영속 상태라 변경 감지가 된다.
+        assertThat(em.contains(team)).isTrue();
+        team.setAge(1);
+        em.flush();
+
+        Long count = em.createQuery("select count(m) from Member m where m.team = :team", Long.class)
+                .setParameter("team", team)
+                .getSingleResult();
+        assertThat(count).isEqualTo(100);
+    }
+}
@@ -0,0 +1,71 @@
+package jpa.jpastudy.export;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ColumnarFormatTest {
+
+    private static final List<Column> COLUMNS = SnapshotTable.ORDER.getColumns();
+
+    @Test
+    public void 여러_row_group_을_그대로_읽어온다() throws Exception {
+        List<Object[]> expected = new ArrayList<>();
+        for (long id = 1; id <= 2500; id++) {
+            expected.add(new Object[]{id * 3, id % 7 == 0 ? null : id % 50, "city" + id % 5, "street" + id,
+                    id % 11 == 0 ? null : String.valueOf(10000 + id % 20)});
+        }
+
+        ByteArrayOutputStream file = new ByteArrayOutputStream();
+        try (ColumnarWriter writer = new ColumnarWriter(file, COLUMNS, 1000)) {
+            for (Object[] row : expected) {
+                writer.write(row);
+            }
+            assertThat(writer.getRowCount()).isEqualTo(2500);
+        }
+
+        List<Object[]> actual = new ArrayList<>();
+        try (ColumnarReader reader = new ColumnarReader(new ByteArrayInputStream(file.toByteArray()))) {
+            assertThat(reader.columns()).isEqualTo(COLUMNS);
+            reader.forEachRow(null, actual::add);
+        }
+        assertThat(actual).containsExactlyElementsOf(expected);
+    }
+
+    @Test
+    public void 필요한_컬럼만_읽는다() throws Exception {
+        ByteArrayOutputStream file = new ByteArrayOutputStream();
+        try (ColumnarWriter writer = new ColumnarWriter(file, COLUMNS, 2)) {
+            writer.write(1L, 10L, "서울", "1번지", "10000");
+            writer.write(2L, 10L, "서울", "2번지", "10000");
+            writer.write(5L, 11L, "부산", "3번지", null);
+        }
+
+        List<String> cities = new ArrayList<>();
+        try (ColumnarReader reader = new ColumnarReader(new ByteArrayInputStream(file.toByteArray()))) {
+            reader.forEachRow(Set.of("city"), row -> {
+                assertThat(row[0]).isNull();
+                assertThat(row[3]).isNull();
+                cities.add((String) row[2]);
+            });
+        }
+        assertThat(cities).containsExactly("서울", "서울", "부산");
+    }
+
+    @Test
+    public void 중복이_많은_컬럼은_작게_압축된다() throws Exception {
+        ByteArrayOutputStream file = new ByteArrayOutputStream();
+        try (ColumnarWriter writer = new ColumnarWriter(file, COLUMNS, 10000)) {
+            for (long id = 1; id <= 10000; id++) {
+                writer.write(id, 1L, "서울특별시", "street", "04524");
+            }
+        }
+        assertThat(file.size()).isLessThan(10000);
+    }
+}
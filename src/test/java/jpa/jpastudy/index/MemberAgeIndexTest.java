@@ -0,0 +1,110 @@
+package jpa.jpastudy.index;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class MemberAgeIndexTest {
+
+    @Test
+    public void 팀별_나이_조건_조회() {
+        MemberAgeIndex index = new MemberAgeIndex();
+        index.put(1L, 100L, 5);
+        index.put(2L, 100L, 15);
+        index.put(3L, 200L, 30);
+        index.put(4L, 100L, 20);
+
+        // fetch_join_은_대상에는_별칭x 의 "where m.age > 10" 조건
+        assertThat(index.membersOlderThan(100L, 10)).containsExactly(2L, 4L);
+        assertThat(index.countOlderThan(200L, 10)).isEqualTo(1);
+        assertThat(index.membersOlderThan(300L, 10)).isEmpty();
+    }
+
+    @Test
+    public void 나이_팀_변경과_삭제() {
+        MemberAgeIndex index = new MemberAgeIndex();
+        index.put(1L, 100L, 5);
+        index.put(2L, 100L, 15);
+
+        index.put(1L, 100L, 50);
+        index.put(2L, 200L, 15);
+
+        assertThat(index.membersOlderThan(100L, 10)).containsExactly(1L);
+        assertThat(index.membersOlderThan(200L, 10)).containsExactly(2L);
+
+        index.remove(1L);
+        index.put(2L, null, 15);
+
+        assertThat(index.countOlderThan(100L, 0)).isZero();
+        assertThat(index.countOlderThan(200L, 0)).isZero();
+        assertThat(index.size()).isZero();
+    }
+
+    @Test
+    public void 전체_재적재() {
+        MemberAgeIndex index = new MemberAgeIndex();
+        index.put(99L, 1L, 1);
+
+        index.reload(new long[]{1L, 2L, 3L}, new long[]{10L, 10L, 20L}, new int[]{40, 20, 30});
+
+        assertThat(index.membersOlderThan(10L, 10)).containsExactly(2L, 1L);
+        assertThat(index.membersOlderThan(1L, 0)).isEmpty();
+        assertThat(index.size()).isEqualTo(3);
+    }
+
+    // 100만 명 / 1만 팀. 재적재한 인덱스와 한 명씩 넣은 인덱스, 맵이 늘어난 직후(부하율이 가장 낮을 때)를 잰다.
+    @Test
+    public void 회원당_메모리() {
+        int members = 1_000_000;
+        long[] memberIds = new long[members];
+        long[] teamIds = new long[members];
+        int[] ages = new int[members];
+        for (int i = 0; i < members; i++) {
+            memberIds[i] = i + 1;
+            teamIds[i] = i % 10_000 + 1;
+            ages[i] = i % 100;
+        }
+        MemberAgeIndex reloaded = new MemberAgeIndex();
+        reloaded.reload(memberIds, teamIds, ages);
+        double reloadedBytes = (double) reloaded.estimatedBytes() / members;
+
+        MemberAgeIndex incremental = new MemberAgeIndex();
+        for (int i = 0; i < members; i++) {
+            incremental.put(memberIds[i], teamIds[i], ages[i]);
+        }
+        double incrementalBytes = (double) incremental.estimatedBytes() / members;
+
+        LongLongMap map = new LongLongMap(1024);
+        double worstMapBytes = 0;
+        for (int i = 0; i < members; i++) {
+            int capacity = map.capacity();
+            map.put(memberIds[i], teamIds[i]);
+            if (map.capacity() != capacity) {
+                worstMapBytes = Math.max(worstMapBytes, 16.0 * map.capacity() / map.size());
+            }
+        }
+        System.out.printf("bytes/member reloaded=%.1f, incremental=%.1f, map right after resize=%.1f%n",
+                reloadedBytes, incrementalBytes, worstMapBytes);
+
+        assertThat(reloadedBytes).isLessThan(35);
+        assertThat(incrementalBytes).isLessThan(45);
+        // 배열 12바이트 + 팀 오버헤드를 더해도 50바이트보다 한참 아래
+        assertThat(worstMapBytes).isLessThanOrEqualTo(30.1);
+    }
+
+    @Test
+    public void 맵_삭제후_탐사가_유지된다() {
+        LongLongMap map = new LongLongMap(16);
+        for (long key = 1; key <= 1000; key++) {
+            map.put(key, key * 10);
+        }
+        for (long key = 1; key <= 1000; key += 2) {
+            assertThat(map.remove(key)).isEqualTo(key * 10);
+        }
+        for (long key = 2; key <= 1000; key += 2) {
+            assertThat(map.get(key)).isEqualTo(key * 10);
+        }
+        assertThat(map.get(1L)).isEqualTo(LongLongMap.NO_VALUE);
+        assertThat(map.size()).isEqualTo(500);
+    }
+}
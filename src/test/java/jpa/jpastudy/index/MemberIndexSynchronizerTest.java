@@ -0,0 +1,28 @@
+package jpa.jpastudy.index;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class MemberIndexSynchronizerTest {
+
+    @Test
+    public void 전체_로딩_중에_커밋된_변경은_덮어쓰지_않는다() {
+        MemberIndexSynchronizer synchronizer = new MemberIndexSynchronizer(null);
+
+        synchronizer.beginReload();
+        // 스냅샷 쿼리가 읽은 뒤에 커밋된 변경
+        synchronizer.memberChanged(1L, 100L, 50);
+        synchronizer.memberChanged(3L, 100L, 40);
+        synchronizer.memberRemoved(2L);
+        synchronizer.finishReload(new long[]{1L, 2L}, new long[]{100L, 100L}, new int[]{20, 30});
+
+        MemberAgeIndex index = synchronizer.getIndex();
+        assertThat(index.membersOlderThan(100L, 0)).containsExactly(3L, 1L);
+        assertThat(index.size()).isEqualTo(2);
+
+        // 로딩이 끝나면 바로 반영된다.
+        synchronizer.memberChanged(4L, 100L, 60);
+        assertThat(index.countOlderThan(100L, 55)).isEqualTo(1);
+    }
+}
@@ -0,0 +1,52 @@
+package jpa.jpastudy.intern;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ValuePoolTest {
+
+    @Test
+    public void 같은_값은_같은_인스턴스() {
+        ValuePool<String> pool = new ValuePool<>(10);
+
+        String first = pool.intern(new String("서울"));
+        String second = pool.intern(new String("서울"));
+
+        assertThat(second).isSameAs(first);
+        assertThat(pool.size()).isEqualTo(1);
+    }
+
+    @Test
+    public void 최대_크기를_넘지_않는다() throws Exception {
+        ValuePool<String> pool = new ValuePool<>(100);
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            int offset = t;
+            futures.add(executor.submit(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    pool.intern("value" + (i * 8 + offset));
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+        assertThat(pool.size()).isLessThanOrEqualTo(100);
+    }
+
+    @Test
+    public void null은_그대로() {
+        assertThat(new ValuePool<String>(1).intern(null)).isNull();
+    }
+}
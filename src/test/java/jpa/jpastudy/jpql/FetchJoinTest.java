@@ -326,6 +326,7 @@ public class FetchJoinTest {
            벌크 연산을 영속성 컨텍스트를 무시하고 DB에 직접 쿼리
            1. 벌크 연산을 먼저 실행
            2. 벌크 연산 수행 후 영속성 컨텍스트 초기화
+           엔티티 이벤트도 발생하지 않아 OutboxWriter 가 변경을 기록하지 않는다.
         */
         // 영향받은 엔티티 수 반환
         int resultCount = em.createQuery("update Member m set m.age = 20")
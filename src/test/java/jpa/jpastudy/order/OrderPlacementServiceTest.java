@@ -0,0 +1,236 @@
+package jpa.jpastudy.order;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jpa.jpastudy.jpql.Address;
+import jpa.jpastudy.jpql.Product;
+import jpa.jpastudy.stock.StockService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// 서비스를 직접 만들어 커밋 스레드를 게이트로 멈춰 두고 큐에 쌓이는 모양을 만든다.
+@SpringBootTest
+public class OrderPlacementServiceTest {
+
+    @PersistenceContext
+    EntityManager em;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    StockService stockService;
+
+    final CountDownLatch gate = new CountDownLatch(1);
+    final OrderPipelineMetrics metrics = new OrderPipelineMetrics();
+    OrderPlacementService service;
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        gate.countDown();
+        if (service != null) {
+            service.stop();
+        }
+    }
+
+    @Test
+    public void 쌓인_주문은_배치로_묶여_저장된다() throws Exception {
+        Long productId = createProduct(1000);
+        service = start(1000);
+
+        List<CompletableFuture<Long>> results = new ArrayList<>();
+        for (int i = 0; i < 250; i++) {
+            results.add(service.place(productId, address()));
+        }
+        gate.countDown();
+        for (CompletableFuture<Long> result : results) {
+            assertThat(result.get(10, TimeUnit.SECONDS)).isNotNull();
+        }
+
+        OrderPipelineMetrics.Snapshot snapshot = service.metrics();
+        assertThat(snapshot.getCommitted()).isEqualTo(250);
+        // 게이트에 걸린 첫 배치 + 나머지를 100건씩
+        assertThat(snapshot.getBatches()).isLessThanOrEqualTo(4);
+        awaitStock(productId, 750);
+    }
+
+    @Test
+    public void 큐가_가득_차면_거절한다() {
+        Long productId = createProduct(10);
+        service = start(1);
+
+        service.place(productId, address());
+        // 커밋 스레드가 첫 주문을 꺼내 게이트에서 기다리는 동안 큐 한 칸을 채운다.
+        awaitQueueEmpty();
+        service.place(productId, address());
+
+        assertThatThrownBy(() -> service.place(productId, address())).isInstanceOf(RejectedExecutionException.class);
+        assertThat(service.metrics().getRejected()).isEqualTo(1);
+    }
+
+    @Test
+    public void 잘못된_주문만_실패한다() throws Exception {
+        Long productId = createProduct(10);
+        service = start(100);
+
+        List<CompletableFuture<Long>> valid = new ArrayList<>();
+        valid.add(service.place(productId, address()));
+        // 없는 상품이라 flush 시점에 FK 위반
+        CompletableFuture<Long> invalid = service.place(Long.MAX_VALUE, address());
+        for (int i = 0; i < 4; i++) {
+            valid.add(service.place(productId, address()));
+        }
+        gate.countDown();
+
+        for (CompletableFuture<Long> result : valid) {
+            assertThat(result.get(10, TimeUnit.SECONDS)).isNotNull();
+        }
+        assertThatThrownBy(() -> invalid.get(10, TimeUnit.SECONDS)).isInstanceOf(ExecutionException.class);
+        assertThat(service.metrics().getFailed()).isEqualTo(1);
+        awaitStock(productId, 5);
+        assertThat(service.failedSettlements()).isEmpty();
+    }
+
+    @Test
+    public void 종료할_때_커밋된_주문의_정산을_버리지_않는다() throws Exception {
+        Long productId = createProduct(1000);
+        service = start(1000);
+
+        List<CompletableFuture<Long>> results = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            results.add(service.place(productId, address()));
+        }
+        gate.countDown();
+        service.stop();
+
+        for (CompletableFuture<Long> result : results) {
+            assertThat(result).isCompleted();
+        }
+        // 기다리지 않아도 이미 정산이 끝나 있어야 한다.
+        assertThat(stockService.currentProductStock(productId)).isEqualTo(700);
+    }
+
+    @Test
+    public void 실패한_정산은_테이블에_남고_재시도로_반영된다() throws Exception {
+        Long productId = createProduct(1);
+        service = start(100);
+
+        List<CompletableFuture<Long>> results = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            results.add(service.place(productId, address()));
+        }
+        gate.countDown();
+        List<Long> orderIds = new ArrayList<>();
+        for (CompletableFuture<Long> result : results) {
+            orderIds.add(result.get(10, TimeUnit.SECONDS));
+        }
+        service.stop();
+
+        // 재시작한 서비스에서도 보인다.
+        service = start(100);
+        assertThat(failedSettlements(productId)).singleElement().satisfies(failed -> {
+            assertThat(failed.orderIds()).containsExactlyInAnyOrderElementsOf(orderIds);
+            assertThat(failed.reason()).isEqualTo("재고 부족");
+        });
+
+        jdbcTemplate.update("update product set stock_amount = 10 where id = ?", productId);
+        service.retryFailedSettlements();
+
+        assertThat(failedSettlements(productId)).isEmpty();
+        assertThat(stockService.currentProductStock(productId)).isEqualTo(7);
+    }
+
+    private List<OrderPlacementService.FailedSettlement> failedSettlements(Long productId) {
+        return service.failedSettlements().stream().filter(f -> f.productId().equals(productId)).toList();
+    }
+
+    private OrderPlacementService start(int queueCapacity) {
+        OrderPlacementService service = new OrderPlacementService(
+                new GatedTransactionTemplate(transactionManager, gate), jdbcTemplate, stockService, metrics);
+        service.em = em;
+        ReflectionTestUtils.setField(service, "queueCapacity", queueCapacity);
+        ReflectionTestUtils.setField(service, "batchSize", 100);
+        ReflectionTestUtils.setField(service, "offerTimeoutMillis", 10L);
+        ReflectionTestUtils.setField(service, "settleQueueCapacity", 100);
+        ReflectionTestUtils.setField(service, "settleMaxAttempts", 3);
+        service.start();
+        return service;
+    }
+
+    private Long createProduct(int stock) {
+        return new TransactionTemplate(transactionManager).execute(status -> {
+            Product product = new Product();
+            product.setName("주문테스트");
+            product.setStockAmount(stock);
+            em.persist(product);
+            return product.getId();
+        });
+    }
+
+    private static Address address() {
+        Address address = new Address();
+        address.setCity("서울");
+        address.setStreet("거리");
+        address.setZipcode("10000");
+        return address;
+    }
+
+    private void awaitQueueEmpty() {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (service.metrics().getQueueSize() > 0 && System.currentTimeMillis() < deadline) {
+            Thread.onSpinWait();
+        }
+    }
+
+    // 정산은 비동기라 반영될 때까지 기다린다.
+    private void awaitStock(Long productId, int expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (stockService.currentProductStock(productId) != expected && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        assertThat(stockService.currentProductStock(productId)).isEqualTo(expected);
+    }
+
+    static class GatedTransactionTemplate extends TransactionTemplate {
+
+        private final CountDownLatch gate;
+
+        GatedTransactionTemplate(PlatformTransactionManager transactionManager, CountDownLatch gate) {
+            super(transactionManager);
+            this.gate = gate;
+        }
+
+        @Override
+        public <T> T execute(TransactionCallback<T> action) throws TransactionException {
+            try {
+                gate.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            }
+            return super.execute(action);
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package jpa.jpastudy.outbox;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.PersistenceContext;
+import jpa.jpastudy.jpql.Member;
+import jpa.jpastudy.jpql.Team;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// 커밋/롤백 시점이 중요하므로 @Transactional 없이 TransactionTemplate으로 트랜잭션을 나눈다.
+@SpringBootTest
+public class OutboxTest {
+
+    @PersistenceContext
+    EntityManager em;
+
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    @Autowired
+    OutboxRelay outboxRelay;
+
+    @Autowired
+    OutboxSink outboxSink;
+
+    @Test
+    public void 커밋된_변경만_순서대로_전달된다() {
+        Long memberId = transactionTemplate.execute(status -> {
+            Team team = new Team();
+            team.setName("팀A");
+            em.persist(team);
+
+            Member member = new Member();
+            member.setUsername("회원1");
+            member.setAge(10);
+            member.setTeam(team);
+            em.persist(member);
+            return member.getId();
+        });
+
+        transactionTemplate.executeWithoutResult(status -> em.find(Member.class, memberId).setAge(20));
+
+        // 롤백된 변경은 outbox에도 남지 않는다.
+        transactionTemplate.executeWithoutResult(status -> {
+            em.find(Member.class, memberId).setAge(99);
+            em.flush();
+            status.setRollbackOnly();
+        });
+
+        transactionTemplate.executeWithoutResult(status -> em.remove(em.find(Member.class, memberId)));
+
+        outboxRelay.poll();
+
+        List<OutboxMessage> memberMessages = ((InMemoryOutboxSink) outboxSink).getMessages().stream()
+                .filter(m -> m.aggregateType().equals("Member") && m.aggregateId().equals(memberId))
+                .toList();
+
+        assertThat(memberMessages).extracting(OutboxMessage::changeType)
+                .containsExactly("INSERT", "UPDATE", "DELETE");
+        assertThat(memberMessages.get(1).payload()).contains("age=20");
+        assertThat(outboxRelay.pendingCount()).isZero();
+    }
+
+    @Test
+    public void 다른_인스턴스가_전달_중이면_기다리지_않고_넘어간다() throws Exception {
+        Long teamId = transactionTemplate.execute(status -> {
+            Team team = new Team();
+            team.setName("릴레이-경합");
+            em.persist(team);
+            return team.getId();
+        });
+
+        // 다른 인스턴스의 릴레이가 리더 행을 잡고 있는 상황
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Void> other = CompletableFuture.runAsync(() -> transactionTemplate.executeWithoutResult(status -> {
+            em.find(OutboxRelayLock.class, OutboxRelayLock.ID, LockModeType.PESSIMISTIC_WRITE);
+            locked.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }));
+        locked.await();
+        try {
+            assertThat(outboxRelay.relayBatch()).isZero();
+            assertThat(teamMessages(teamId)).isEmpty();
+        } finally {
+            release.countDown();
+            other.join();
+        }
+
+        outboxRelay.poll();
+        assertThat(teamMessages(teamId)).extracting(OutboxMessage::changeType).containsExactly("INSERT");
+    }
+
+    private List<OutboxMessage> teamMessages(Long teamId) {
+        return ((InMemoryOutboxSink) outboxSink).getMessages().stream()
+                .filter(m -> m.aggregateType().equals("Team") && m.aggregateId().equals(teamId))
+                .toList();
+    }
+}
@@ -0,0 +1,63 @@
+package jpa.jpastudy.read;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jpa.jpastudy.jpql.Member;
+import jpa.jpastudy.jpql.MemberDto;
+import jpa.jpastudy.jpql.Team;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+import reactor.test.StepVerifier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// JPA 로 넣은 데이터를 R2DBC 로 같은 DB 에서 읽는다.
+@SpringBootTest
+@ActiveProfiles("h2")
+public class ReactiveMemberReadServiceTest {
+
+    @PersistenceContext
+    EntityManager em;
+
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    @Autowired
+    ReactiveMemberReadService reactiveMemberReadService;
+
+    @Test
+    public void 블로킹_버전과_같은_결과를_논블로킹으로_읽는다() {
+        Team team = transactionTemplate.execute(status -> {
+            Team t = new Team();
+            t.setName("리액티브팀");
+            em.persist(t);
+            for (int i = 1; i <= 3; i++) {
+                Member member = new Member();
+                member.setUsername("reactive" + i);
+                member.setAge(i * 10);
+                member.setTeam(t);
+                em.persist(member);
+            }
+            return t;
+        });
+
+        StepVerifier.create(reactiveMemberReadService.findTeam(team.getId()))
+                .assertNext(dto -> {
+                    assertThat(dto.getName()).isEqualTo("리액티브팀");
+                    assertThat(dto.getMemberCount()).isEqualTo(3);
+                })
+                .verifyComplete();
+
+        // 한 건씩 요청해도(backpressure) id 순서대로 끝까지 온다.
+        StepVerifier.create(reactiveMemberReadService.streamMembers(team.getId()).map(MemberDto::getUsername), 1)
+                .expectNext("reactive1")
+                .thenRequest(2)
+                .expectNext("reactive2", "reactive3")
+                .verifyComplete();
+
+        StepVerifier.create(reactiveMemberReadService.findMember(Long.MAX_VALUE)).verifyComplete();
+    }
+}
@@ -0,0 +1,134 @@
+package jpa.jpastudy.scan;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jpa.jpastudy.jpql.Member;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+// 페이지를 작게 잡아 내부 큐가 가득 차서 읽기 작업이 기다리는 상황을 만든다.
+@SpringBootTest(properties = {"jpastudy.scan.page-size=10", "jpastudy.scan.parallelism=4"})
+public class PartitionedScannerTest {
+
+    static final int MEMBERS = 200;
+    static final Duration TIMEOUT = Duration.ofSeconds(20);
+
+    @PersistenceContext
+    EntityManager em;
+
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    @Autowired
+    PartitionedScanner scanner;
+
+    String prefix;
+    Map<String, Object> params;
+
+    @BeforeEach
+    void setUp() {
+        prefix = "scan-" + UUID.randomUUID();
+        params = Map.of("prefix", prefix + "%");
+        transactionTemplate.executeWithoutResult(status -> {
+            for (int i = 0; i < MEMBERS; i++) {
+                Member member = new Member();
+                member.setUsername(prefix + "-" + i);
+                member.setAge(i);
+                em.persist(member);
+            }
+        });
+    }
+
+    @Test
+    public void 범위_나누기() {
+        assertThat(PartitionedScanner.split(0, 10, 3))
+                .containsExactly(new IdRange(0, 4), new IdRange(4, 8), new IdRange(8, 10));
+        assertThat(PartitionedScanner.split(5, 6, 4)).containsExactly(new IdRange(5, 6));
+        assertThat(PartitionedScanner.split(0, 0, 4)).isEmpty();
+    }
+
+    @Test
+    public void 범위_안에서는_id_순서로_페이지를_읽는다() {
+        List<Long> ids = new ArrayList<>();
+        for (IdRange range : scanner.partitions(Member.class, 4)) {
+            List<Long> rangeIds = new ArrayList<>();
+            scanner.scanRange(Member.class, range, "e.username like :prefix", params,
+                    page -> page.forEach(m -> rangeIds.add(m.getId())));
+            assertThat(rangeIds).isSorted();
+            assertThat(rangeIds).allMatch(id -> id > range.fromExclusive() && id <= range.toInclusive());
+            ids.addAll(rangeIds);
+        }
+        assertThat(ids).hasSize(MEMBERS).doesNotHaveDuplicates();
+    }
+
+    @Test
+    public void 중간에_닫은_스트림은_읽기_작업을_멈춘다() {
+        assertTimeoutPreemptively(TIMEOUT, () -> {
+            // 여러 번 반복해도 풀 스레드가 막혀 있지 않아야 한다.
+            for (int i = 0; i < 5; i++) {
+                try (Stream<Member> stream = scanner.stream(Member.class, "e.username like :prefix", params)) {
+                    assertThat(stream.findFirst()).isPresent();
+                }
+            }
+            assertThat(countAll()).isEqualTo(MEMBERS);
+        });
+    }
+
+    @Test
+    public void 실패한_파티션의_예외가_전달되고_풀은_살아있다() {
+        assertTimeoutPreemptively(TIMEOUT, () -> {
+            try (Stream<Member> stream = scanner.stream(Member.class, "e.noSuchField = 1", Map.of())) {
+                assertThatThrownBy(stream::count).isInstanceOf(RuntimeException.class);
+            }
+            assertThat(countAll()).isEqualTo(MEMBERS);
+        });
+    }
+
+    @Test
+    public void 느린_소비자는_일부가_빠진_채_끝나지_않고_예외를_받는다() {
+        Object original = ReflectionTestUtils.getField(scanner, "abandonTimeoutMillis");
+        ReflectionTestUtils.setField(scanner, "abandonTimeoutMillis", 300L);
+        try {
+            assertTimeoutPreemptively(TIMEOUT, () -> {
+                try (Stream<Member> stream = scanner.stream(Member.class, "e.username like :prefix", params)) {
+                    // 큐(페이지 10 x 파티션 4)가 가득 찬 채로 abandon-timeout 보다 오래 멈춘다.
+                    assertThatThrownBy(() -> stream.forEach(member -> sleep(member.getAge() == 0 ? 1000 : 0)))
+                            .isInstanceOf(IllegalStateException.class)
+                            .hasMessageContaining("abandon-timeout-ms");
+                }
+            });
+        } finally {
+            ReflectionTestUtils.setField(scanner, "abandonTimeoutMillis", original);
+        }
+        assertThat(countAll()).isEqualTo(MEMBERS);
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private long countAll() {
+        try (Stream<Member> stream = scanner.stream(Member.class, "e.username like :prefix", params)) {
+            return stream.count();
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package jpa.jpastudy.schema;
+
+import jpa.jpastudy.jpql.ItemType;
+import jpa.jpastudy.jpql.MemberType;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 자주 쓰는 쿼리 모양을 등록해 두고, 임베디드 DB(H2) 실행 계획에서 full scan 으로 바뀌면 빌드를 깨뜨린다.
+ * 스키마는 운영과 같은 Flyway 마이그레이션으로 만든다.
+ * 다른 h2 테스트가 남긴 행이 통계와 계획을 바꾸지 않도록 이 테스트만 쓰는 인메모리 DB 를 쓴다.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:explain;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+        "jpastudy.reactive.url=r2dbc:h2:mem:///explain?options=MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1"
+})
+@ActiveProfiles("h2")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class HotQueryExplainTest {
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    static Stream<String> hotQueries() {
+        return Stream.of(
+                // Named_쿼리 Member.findByUsername
+                "select id, age from `member` where username = 'member1'",
+                // 팀별 회원 중 나이 조건 (fetch_join_은_대상에는_별칭x)
+                "select id, age from `member` where team_id = 3 and age > 10",
+                // 나이 범위 + id
+                "select id from `member` where age > 90 order by age, id",
+                // type(i) = Book and 가격 조건
+                "select item_id from item where dtype = 1 and price > 9000",
+                // 상품별 주문
+                "select id from orders where product_id = 3"
+        );
+    }
+
+    static final int ROWS = 5000;
+
+    @BeforeAll
+    void seed() {
+        List<Object[]> teams = new ArrayList<>();
+        List<Object[]> products = new ArrayList<>();
+        for (long i = 1; i <= 20; i++) {
+            teams.add(new Object[]{i, "팀" + i});
+            products.add(new Object[]{i, "상품" + i});
+        }
+        jdbcTemplate.batchUpdate("insert into team (id, age, name) values (?, 0, ?)", teams);
+        jdbcTemplate.batchUpdate("insert into product (id, name, price, stock_amount, version) values (?, ?, 1000, 100, 0)", products);
+
+        List<Object[]> members = new ArrayList<>();
+        List<Object[]> items = new ArrayList<>();
+        List<Object[]> orders = new ArrayList<>();
+        for (long i = 1; i <= ROWS; i++) {
+            members.add(new Object[]{i, (int) (i % 100), i % 20 + 1, MemberType.USER.getCode(), "member" + i});
+            items.add(new Object[]{ItemType.BOOK.getCode(), i, "상품" + i, (int) (i % 10000)});
+            orders.add(new Object[]{i, "서울", "거리" + i, "1000" + i % 10, i % 20 + 1});
+        }
+        jdbcTemplate.batchUpdate("insert into `member` (id, age, team_id, type, username) values (?, ?, ?, ?, ?)", members);
+        jdbcTemplate.batchUpdate("insert into item (dtype, item_id, name, price, stock_quantity, version) values (?, ?, ?, ?, 0, 0)", items);
+        jdbcTemplate.batchUpdate("insert into orders (id, city, street, zipcode, product_id) values (?, ?, ?, ?, ?)", orders);
+        // id 를 직접 넣었으므로 이후 이 DB 에서 엔티티를 저장해도 겹치지 않게 시퀀스를 뒤로 민다. (pooled, increment 50)
+        for (String sequence : List.of("team_seq", "product_seq", "member_seq", "item_seq", "order_seq")) {
+            jdbcTemplate.execute("alter sequence " + sequence + " restart with " + (ROWS + 51));
+        }
+        jdbcTemplate.execute("analyze");
+    }
+
+    @ParameterizedTest
+    @MethodSource("hotQueries")
+    public void 핫_쿼리는_인덱스를_탄다(String sql) {
+        String plan = String.join("\n", jdbcTemplate.queryForList("explain " + sql, String.class));
+        System.out.println("plan = " + plan);
+
+        assertThat(plan).doesNotContainIgnoringCase("tableScan");
+    }
+}
@@ -0,0 +1,114 @@
+package jpa.jpastudy.shard;
+
+import jpa.jpastudy.jpql.Member;
+import jpa.jpastudy.jpql.Team;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// 샤드마다 별도의 H2 인메모리 DB 를 띄우고 운영과 같은 Flyway 스크립트로 스키마를 만든다.
+public class ShardedEntityManagersTest {
+
+    final String run = UUID.randomUUID().toString().substring(0, 8);
+
+    @Test
+    public void 팀과_회원은_같은_샤드에_저장된다() {
+        try (ShardedEntityManagers sharded = ShardedEntityManagers.create(dataSources(2), Map.of())) {
+            List<Long> teamIds = seed(sharded, 10);
+
+            for (Long teamId : teamIds) {
+                Long count = sharded.withTeam(teamId, em -> em.createQuery(
+                                "select count(m) from Member m where m.team.id = :teamId", Long.class)
+                        .setParameter("teamId", teamId)
+                        .getSingleResult());
+                assertThat(count).isEqualTo(3);
+            }
+            assertThat(countTeams(sharded, 0)).isPositive();
+            assertThat(countTeams(sharded, 1)).isPositive();
+        }
+    }
+
+    @Test
+    public void 샤드를_가로지르는_정렬과_limit() {
+        try (ShardedEntityManagers sharded = ShardedEntityManagers.create(dataSources(2), Map.of())) {
+            seed(sharded, 10);
+
+            List<Member> top = sharded.scatterGather("select m from Member m order by m.age desc", Member.class,
+                    Map.of(), Comparator.comparingInt(Member::getAge).reversed(), 5);
+
+            // 나이는 0 ~ 29
+            assertThat(top).extracting(Member::getAge).containsExactly(29, 28, 27, 26, 25);
+        }
+    }
+
+    @Test
+    public void 샤드를_늘리면_라우팅이_바뀐_팀만_옮긴다() {
+        List<Long> teamIds;
+        try (ShardedEntityManagers twoShards = ShardedEntityManagers.create(dataSources(2), Map.of())) {
+            teamIds = seed(twoShards, 30);
+        }
+
+        try (ShardedEntityManagers threeShards = ShardedEntityManagers.create(dataSources(3), Map.of())) {
+            int moved = new ShardRebalancer(threeShards).rebalance();
+
+            assertThat(moved).isPositive();
+            long members = 0;
+            for (Long teamId : teamIds) {
+                Team team = threeShards.withTeam(teamId, em -> em.find(Team.class, teamId));
+                assertThat(team).isNotNull();
+                members += threeShards.withTeam(teamId, em -> em.createQuery(
+                                "select count(m) from Member m where m.team.id = :teamId", Long.class)
+                        .setParameter("teamId", teamId)
+                        .getSingleResult());
+            }
+            assertThat(members).isEqualTo(90);
+            assertThat(countTeams(threeShards, 0) + countTeams(threeShards, 1) + countTeams(threeShards, 2)).isEqualTo(30);
+        }
+    }
+
+    private List<Long> seed(ShardedEntityManagers sharded, int teams) {
+        List<Long> teamIds = new ArrayList<>();
+        for (int i = 0; i < teams; i++) {
+            Team team = new Team();
+            team.setName("팀" + i);
+            sharded.persistTeam(team);
+            teamIds.add(team.getId());
+            for (int j = 0; j < 3; j++) {
+                Member member = new Member();
+                member.setUsername("회원" + i + "_" + j);
+                member.setAge(i * 3 + j);
+                member.setTeam(team);
+                sharded.persistMember(member);
+            }
+        }
+        return teamIds;
+    }
+
+    private long countTeams(ShardedEntityManagers sharded, int shard) {
+        return sharded.inShard(shard, em -> em.createQuery("select count(t) from Team t", Long.class).getSingleResult());
+    }
+
+    private List<DataSource> dataSources(int count) {
+        List<DataSource> dataSources = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                    "jdbc:h2:mem:shard" + i + "_" + run + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1", "sa", "");
+            Flyway.configure()
+                    .dataSource(dataSource)
+                    .locations("classpath:db/migration/common", "classpath:db/migration/h2")
+                    .load()
+                    .migrate();
+            dataSources.add(dataSource);
+        }
+        return dataSources;
+    }
+}
@@ -0,0 +1,106 @@
+package jpa.jpastudy.stock;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jpa.jpastudy.jpql.Product;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongPredicate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// 여러 스레드가 각자 트랜잭션을 열어야 하므로 @Transactional 없이 실행
+@SpringBootTest
+public class StockServiceTest {
+
+    static final int STOCK = 100;
+    static final int THREADS = 32;
+    // 낙관적 락은 충돌마다 재시도하므로 경쟁 스레드 수를 재시도 한도 안에서 끝날 정도로 둔다.
+    static final int OPTIMISTIC_THREADS = 8;
+    static final int REQUESTS = 300;
+
+    @PersistenceContext
+    EntityManager em;
+
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    @Autowired
+    StockService stockService;
+
+    @Autowired
+    StockReservationBuffer reservationBuffer;
+
+    @Test
+    public void 조건부_차감_동시성() throws Exception {
+        Long productId = createProduct();
+
+        int success = runConcurrently(THREADS, id -> stockService.decreaseProduct(id, 1), productId);
+
+        assertThat(success).isEqualTo(STOCK);
+        assertThat(stockService.currentProductStock(productId)).isZero();
+    }
+
+    @Test
+    public void 낙관적락_재시도_동시성() throws Exception {
+        Long productId = createProduct();
+
+        int success = runConcurrently(OPTIMISTIC_THREADS, id -> stockService.decreaseProductOptimistic(id, 1), productId);
+
+        // 충돌은 모두 재시도로 흡수되어야 한다. (예외가 나면 runConcurrently가 실패한다)
+        assertThat(success).isEqualTo(STOCK);
+        assertThat(stockService.currentProductStock(productId)).isZero();
+    }
+
+    @Test
+    public void 예약_버퍼_동시성() throws Exception {
+        Long productId = createProduct();
+
+        int success = runConcurrently(THREADS, id -> reservationBuffer.reserve(id, 1), productId);
+
+        assertThat(success).isEqualTo(STOCK);
+        assertThat(stockService.currentProductStock(productId)).isZero();
+    }
+
+    private Long createProduct() {
+        return transactionTemplate.execute(status -> {
+            Product product = new Product();
+            product.setName("한정판");
+            product.setStockAmount(STOCK);
+            em.persist(product);
+            return product.getId();
+        });
+    }
+
+    // 작업 중 예외가 나면 future.get()이 ExecutionException으로 테스트를 실패시킨다.
+    private int runConcurrently(int threads, LongPredicate decrease, Long productId) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        AtomicInteger success = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+        long start = System.nanoTime();
+        for (int i = 0; i < REQUESTS; i++) {
+            futures.add(executor.submit(() -> {
+                if (decrease.test(productId)) {
+                    success.incrementAndGet();
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+        System.out.println("elapsed(ms) = " + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) + ", success = " + success.get());
+        return success.get();
+    }
+}
@@ -0,0 +1,87 @@
+package jpa.jpastudy.trace;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import jpa.jpastudy.jpql.Member;
+import jpa.jpastudy.jpql.Team;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+public class TracingTest {
+
+    @PersistenceContext
+    EntityManager em;
+
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    @AfterEach
+    void tearDown() {
+        PersistenceTracing.setEnabled(false);
+    }
+
+    @Test
+    public void 지연로딩_쿼리_플러시가_JFR에_기록된다() throws Exception {
+        Long memberId = transactionTemplate.execute(status -> {
+            Team team = new Team();
+            team.setName("팀A");
+            em.persist(team);
+
+            Member member = new Member();
+            member.setUsername("회원1");
+            member.setTeam(team);
+            em.persist(member);
+            return member.getId();
+        });
+
+        List<RecordedEvent> events;
+        try (Recording recording = new Recording()) {
+            recording.enable("jpastudy.Session");
+            recording.enable("jpastudy.Flush");
+            recording.enable("jpastudy.Query");
+            recording.enable("jpastudy.LazyLoad");
+            recording.start();
+
+            PersistenceTracing.setEnabled(true);
+            transactionTemplate.executeWithoutResult(status -> {
+                Member member = em.createQuery("select m from Member m where m.id = :id", Member.class)
+                        .setParameter("id", memberId)
+                        .getSingleResult();
+                member.getTeam().getName();
+                member.setAge(20);
+            });
+
+            recording.stop();
+            Path file = Files.createTempFile("tracing", ".jfr");
+            recording.dump(file);
+            events = RecordingFile.readAllEvents(file);
+            Files.delete(file);
+        }
+
+        assertThat(events).anySatisfy(e -> {
+            assertThat(e.getEventType().getName()).isEqualTo("jpastudy.LazyLoad");
+            assertThat(e.getString("target")).isEqualTo(Team.class.getName());
+        });
+        assertThat(events).anySatisfy(e -> {
+            assertThat(e.getEventType().getName()).isEqualTo("jpastudy.Query");
+            assertThat(e.getInt("rowCount")).isEqualTo(1);
+        });
+        assertThat(events).anySatisfy(e -> {
+            assertThat(e.getEventType().getName()).isEqualTo("jpastudy.Flush");
+            assertThat(e.getInt("entityCount")).isGreaterThanOrEqualTo(2);
+        });
+    }
+}
@@ -0,0 +1,178 @@
+package jpa.jpastudy.writebehind;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jpa.jpastudy.cache.TableVersions;
+import jpa.jpastudy.index.MemberIndexSynchronizer;
+import jpa.jpastudy.jpql.Member;
+import jpa.jpastudy.outbox.InMemoryOutboxSink;
+import jpa.jpastudy.outbox.OutboxMessage;
+import jpa.jpastudy.outbox.OutboxRelay;
+import jpa.jpastudy.outbox.OutboxSink;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// 스케줄러가 끼어들지 않도록 버퍼를 직접 만들고, 저널은 임시 디렉터리에 둔다.
+@SpringBootTest
+public class WriteBehindBufferTest {
+
+    @TempDir
+    Path journalDir;
+
+    @PersistenceContext
+    EntityManager em;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    @Autowired
+    TableVersions tableVersions;
+
+    @Autowired
+    MemberIndexSynchronizer memberIndexSynchronizer;
+
+    @Autowired
+    OutboxRelay outboxRelay;
+
+    @Autowired
+    OutboxSink outboxSink;
+
+    final List<WriteBehindBuffer> buffers = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        buffers.forEach(WriteBehindBuffer::shutdown);
+    }
+
+    @Test
+    public void 쌓인_변경은_한_번에_반영되고_outbox_에_남는다() throws IOException {
+        Long memberId = persistMember("wb-flush", 10);
+        WriteBehindBuffer buffer = newBuffer();
+
+        buffer.addMemberAge(memberId, 1);
+        buffer.addMemberAge(memberId, 1);
+        buffer.addMemberAge(memberId, 1);
+        assertThat(buffer.pendingRows()).isEqualTo(1);
+
+        buffer.flush();
+
+        assertThat(age(memberId)).isEqualTo(13);
+        assertThat(buffer.pendingRows()).isZero();
+        assertThat(journalFiles()).isEmpty();
+
+        outboxRelay.poll();
+        List<OutboxMessage> messages = ((InMemoryOutboxSink) outboxSink).getMessages().stream()
+                .filter(m -> m.aggregateType().equals("Member") && m.aggregateId().equals(memberId))
+                .filter(m -> m.changeType().equals("UPDATE"))
+                .toList();
+        assertThat(messages).hasSize(1);
+        assertThat(messages.get(0).payload()).startsWith("username=wb-flush,age=13,");
+    }
+
+    @Test
+    public void 재기동하면_저널을_다시_반영한다() throws IOException {
+        Long memberId = persistMember("wb-recover", 10);
+
+        // shutdown 없이 버려서 프로세스가 죽은 상황을 만든다.
+        WriteBehindBuffer crashed = new WriteBehindBuffer(jdbcTemplate, transactionTemplate, tableVersions,
+                memberIndexSynchronizer, journalDir.toString(), "", "always", 1000);
+        crashed.setMemberAge(memberId, 30);
+        crashed.addMemberAge(memberId, 2);
+        assertThat(age(memberId)).isEqualTo(10);
+
+        WriteBehindBuffer restarted = newBuffer();
+        restarted.recover();
+        assertThat(restarted.pendingRows()).isEqualTo(1);
+
+        restarted.flush();
+        assertThat(age(memberId)).isEqualTo(32);
+        assertThat(journalFiles()).isEmpty();
+    }
+
+    @Test
+    public void 반영_후_저널_삭제_전에_죽어도_다시_더하지_않는다() throws IOException {
+        Long memberId = persistMember("wb-watermark", 10);
+        WriteBehindBuffer buffer = newBuffer();
+        buffer.addMemberAge(memberId, 5);
+
+        // 반영 전 세그먼트를 떠 두었다가 반영 후 되살려서, DB 커밋 후 저널을 지우기 전에 죽은 상황을 만든다.
+        List<Path> segments = journalFiles();
+        List<byte[]> contents = new ArrayList<>();
+        for (Path segment : segments) {
+            contents.add(Files.readAllBytes(segment));
+        }
+        buffer.flush();
+        assertThat(age(memberId)).isEqualTo(15);
+        for (int i = 0; i < segments.size(); i++) {
+            Files.write(segments.get(i), contents.get(i));
+        }
+
+        WriteBehindBuffer restarted = newBuffer();
+        restarted.recover();
+        assertThat(restarted.pendingRows()).isZero();
+        restarted.flush();
+        assertThat(age(memberId)).isEqualTo(15);
+        assertThat(journalFiles()).isEmpty();
+    }
+
+    @Test
+    public void 엔티티_수정이_반영된_age_를_덮어쓰지_않는다() {
+        Long memberId = persistMember("wb-dynamic", 10);
+        WriteBehindBuffer buffer = newBuffer();
+
+        transactionTemplate.executeWithoutResult(status -> {
+            Member member = em.find(Member.class, memberId);
+            // 엔티티를 읽은 뒤 다른 트랜잭션에서 age 가 바뀐다.
+            buffer.setMemberAge(memberId, 50);
+            CompletableFuture.runAsync(buffer::flush).join();
+            member.setUsername("wb-dynamic-renamed");
+        });
+
+        assertThat(age(memberId)).isEqualTo(50);
+    }
+
+    private WriteBehindBuffer newBuffer() {
+        WriteBehindBuffer buffer = new WriteBehindBuffer(jdbcTemplate, transactionTemplate, tableVersions,
+                memberIndexSynchronizer, journalDir.toString(), "", "always", 1000);
+        buffers.add(buffer);
+        return buffer;
+    }
+
+    private Long persistMember(String username, int age) {
+        return transactionTemplate.execute(status -> {
+            Member member = new Member();
+            member.setUsername(username);
+            member.setAge(age);
+            em.persist(member);
+            return member.getId();
+        });
+    }
+
+    private int age(Long memberId) {
+        return jdbcTemplate.queryForObject("select age from `member` where id = ?", Integer.class, memberId);
+    }
+
+    private List<Path> journalFiles() throws IOException {
+        try (Stream<Path> files = Files.list(journalDir)) {
+            return files.toList();
+        }
+    }
+}
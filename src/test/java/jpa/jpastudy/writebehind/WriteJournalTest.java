@@ -0,0 +1,91 @@
+package jpa.jpastudy.writebehind;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class WriteJournalTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    public void 반영된_세그먼트만_지운다() {
+        WriteJournal journal = new WriteJournal(dir, WriteJournal.FsyncPolicy.ALWAYS);
+        journal.append(HotField.MEMBER_AGE, 1L, MergeMode.LAST_WRITE_WINS, 10);
+        long flushed = journal.roll();
+        journal.append(HotField.TEAM_AGE, 2L, MergeMode.ADDITIVE, 3);
+
+        journal.deleteUpTo(flushed);
+        journal.close();
+
+        List<WriteJournal.Entry> entries = new ArrayList<>();
+        new WriteJournal(dir, WriteJournal.FsyncPolicy.ALWAYS).replay(0, entries::add);
+        assertThat(entries).containsExactly(new WriteJournal.Entry(HotField.TEAM_AGE, 2L, MergeMode.ADDITIVE, 3));
+    }
+
+    @Test
+    public void 워터마크_이하_세그먼트는_다시_읽지_않는다() {
+        WriteJournal journal = new WriteJournal(dir, WriteJournal.FsyncPolicy.ON_ROLL);
+        journal.append(HotField.MEMBER_AGE, 1L, MergeMode.ADDITIVE, 1);
+        long flushed = journal.roll();
+        journal.append(HotField.MEMBER_AGE, 1L, MergeMode.ADDITIVE, 2);
+        journal.close();
+
+        List<WriteJournal.Entry> entries = new ArrayList<>();
+        new WriteJournal(dir, WriteJournal.FsyncPolicy.ON_ROLL).replay(flushed, entries::add);
+        assertThat(entries).containsExactly(new WriteJournal.Entry(HotField.MEMBER_AGE, 1L, MergeMode.ADDITIVE, 2));
+    }
+
+    @Test
+    public void 워터마크_뒤의_번호로_새_세그먼트를_연다() {
+        WriteJournal journal = new WriteJournal(dir, WriteJournal.FsyncPolicy.ALWAYS);
+        journal.startAfter(7);
+        journal.append(HotField.TEAM_AGE, 1L, MergeMode.LAST_WRITE_WINS, 1);
+
+        assertThat(journal.roll()).isEqualTo(8);
+    }
+
+    @Test
+    public void 동시에_기록한_줄은_모두_남는다() throws Exception {
+        WriteJournal journal = new WriteJournal(dir, WriteJournal.FsyncPolicy.ALWAYS);
+        int threads = 8;
+        int perThread = 1000;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            long id = t;
+            futures.add(executor.submit(() -> {
+                for (int i = 0; i < perThread; i++) {
+                    journal.append(HotField.MEMBER_AGE, id, MergeMode.ADDITIVE, 1);
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+        journal.close();
+
+        long[] sums = new long[threads];
+        new WriteJournal(dir, WriteJournal.FsyncPolicy.ALWAYS).replay(0, entry -> sums[(int) entry.id()] += entry.value());
+        assertThat(sums).containsOnly(perThread);
+    }
+
+    @Test
+    public void 변경_합치기() {
+        PendingWrite add = new PendingWrite(MergeMode.ADDITIVE, 1);
+
+        assertThat(add.then(new PendingWrite(MergeMode.ADDITIVE, 2))).isEqualTo(new PendingWrite(MergeMode.ADDITIVE, 3));
+        assertThat(add.then(new PendingWrite(MergeMode.LAST_WRITE_WINS, 20))).isEqualTo(new PendingWrite(MergeMode.LAST_WRITE_WINS, 20));
+        assertThat(new PendingWrite(MergeMode.LAST_WRITE_WINS, 20).then(add)).isEqualTo(new PendingWrite(MergeMode.LAST_WRITE_WINS, 21));
+    }
+}